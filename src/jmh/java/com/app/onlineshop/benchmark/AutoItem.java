@@ -0,0 +1,37 @@
+package com.app.onlineshop.benchmark;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Item-shaped row keyed the way items were before time-ordered ids: GenerationType.AUTO, which on
+// MySQL is a pooled sequence table (auto_items_seq). The table is forced here too, since the
+// in-memory benchmark database would otherwise use a native sequence. Only exists on the
+// benchmark classpath.
+@Entity
+@Table(name = "benchmark_auto_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AutoItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "auto_items_seq")
+    @GenericGenerator(name = "auto_items_seq", type = SequenceStyleGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "auto_items_seq"),
+            @Parameter(name = SequenceStyleGenerator.FORCE_TBL_PARAM, value = "true"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50") })
+    private Long itemId;
+    @Column(nullable = false)
+    private String itemName;
+    private String itemCode;
+    private int stock;
+    private Double price;
+    private boolean isAvailable;
+}
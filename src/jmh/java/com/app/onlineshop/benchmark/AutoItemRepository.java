@@ -0,0 +1,6 @@
+package com.app.onlineshop.benchmark;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AutoItemRepository extends JpaRepository<AutoItem, Long> {
+}
@@ -0,0 +1,25 @@
+package com.app.onlineshop.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.app.onlineshop.OnlineshopApplication;
+
+// Starts the application on the in-memory test database (application-test.properties), without
+// the web server, for benchmarks that drive services directly
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(OnlineshopApplication.class)
+                .profiles("test")
+                .properties("spring.main.web-application-type=none",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.generate_statistics=false")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.app.onlineshop.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import com.app.onlineshop.DTO.request.OrderRequest;
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.model.Order;
+
+// Seeded datasets, so every run and every release benchmarks the same rows
+final class BenchmarkData {
+    static final long SEED = 42L;
+
+    // Fixed reference time so dates serialize identically across runs
+    private static final long EPOCH = 1_704_067_200_000L;
+
+    private BenchmarkData() {
+    }
+
+    static List<Customer> customers(int count) {
+        Random random = new Random(SEED);
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(Customer.builder()
+                    .customerName("Customer " + i)
+                    .customerAddress((random.nextInt(900) + 100) + " Market Street, Block " + (char) ('A' + i % 26))
+                    .customerCode(String.format("CUST-%06d", i))
+                    .customerPhone(String.format("+62 812 %04d %04d", random.nextInt(10_000), random.nextInt(10_000)))
+                    .isActive(random.nextInt(10) != 0)
+                    .lastOrder(new Date(EPOCH + random.nextInt(365) * 86_400_000L))
+                    .pic(String.format("pictures/%064x", random.nextLong() & Long.MAX_VALUE))
+                    .build());
+        }
+        return customers;
+    }
+
+    static List<Item> items(int count, int stock) {
+        Random random = new Random(SEED + 1);
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(Item.builder()
+                    .itemName("Item " + i)
+                    .itemCode(String.format("ITEM-%06d", i))
+                    .stock(stock)
+                    .price(Math.round((1 + random.nextDouble() * 499) * 100) / 100.0)
+                    .isAvailable(true)
+                    .lastRestock(new Date(EPOCH + random.nextInt(90) * 86_400_000L))
+                    .build());
+        }
+        return items;
+    }
+
+    // Orders over the given (already saved, or id-assigned) customers and items
+    static List<Order> orders(int count, List<Customer> customers, List<Item> items) {
+        Random random = new Random(SEED + 2);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Item item = items.get(random.nextInt(items.size()));
+            int quantity = 1 + random.nextInt(5);
+            orders.add(Order.builder()
+                    .orderCode(String.format("ORD-%08d", i))
+                    .orderDate(new Date(EPOCH + random.nextInt(365 * 86_400) * 1000L))
+                    .quantity(quantity)
+                    .totalPrice(item.getPrice() * quantity)
+                    .customer(customers.get(random.nextInt(customers.size())))
+                    .item(item)
+                    .build());
+        }
+        return orders;
+    }
+
+    // Detached copies carrying sequential ids, for benchmarks that never touch the database
+    static List<Order> ordersWithIds(int count) {
+        List<Customer> customers = customers(Math.max(1, count / 10));
+        List<Item> items = items(Math.max(1, count / 20), 100);
+        for (int i = 0; i < customers.size(); i++) {
+            customers.get(i).setCustomerId(i + 1L);
+            customers.get(i).setVersion(0L);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setItemId(i + 1L);
+            items.get(i).setVersion(0L);
+        }
+        List<Order> orders = orders(count, customers, items);
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).setOrderId(i + 1L);
+        }
+        return orders;
+    }
+
+    static OrderRequest orderRequest(Random random, List<Long> customerIds, List<Long> itemIds, long sequence) {
+        OrderRequest request = new OrderRequest();
+        request.setOrderCode("BENCH-" + sequence);
+        request.setOrderDate(new Date(EPOCH));
+        request.setQuantity(1);
+        request.setCustomerId(customerIds.get(random.nextInt(customerIds.size())));
+        request.setItemId(itemIds.get(random.nextInt(itemIds.size())));
+        return request;
+    }
+}
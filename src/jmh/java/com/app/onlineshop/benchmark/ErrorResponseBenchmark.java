@@ -0,0 +1,83 @@
+package com.app.onlineshop.benchmark;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.app.onlineshop.DTO.request.OrderRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Cost of the error paths the controllers take on every rejected request: the service exception
+// (stack trace included), the LinkedHashMap response body, and the validation error map
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private ObjectMapper objectMapper;
+    private OrderRequest invalidRequest;
+
+    @Setup
+    public void createRequest() {
+        objectMapper = new ObjectMapper();
+        invalidRequest = new OrderRequest();
+        invalidRequest.setOrderDate(new Date(0));
+    }
+
+    @Benchmark
+    public ResponseStatusException notFoundException() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found");
+    }
+
+    @Benchmark
+    public Map<String, Object> notFoundBody() {
+        Map<String, Object> responseBody = new LinkedHashMap<>();
+        responseBody.put("message", "Item with ID " + 123_456_789L + " not found.");
+        responseBody.put("status", HttpStatus.NOT_FOUND.value());
+        return responseBody;
+    }
+
+    @Benchmark
+    public byte[] notFoundBodySerialized() throws Exception {
+        return objectMapper.writeValueAsBytes(notFoundBody());
+    }
+
+    @Benchmark
+    public Map<String, Object> validationErrorBody() {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(invalidRequest, "orderRequest");
+        bindingResult.rejectValue("orderCode", "NotBlank", "Order code is required");
+        bindingResult.rejectValue("quantity", "Min", "Quantity must be at least 1");
+        bindingResult.rejectValue("customerId", "NotNull", "Customer ID is required");
+        bindingResult.rejectValue("itemId", "NotNull", "Item ID is required");
+
+        Map<String, String> errors = new LinkedHashMap<>();
+        bindingResult.getAllErrors().forEach(error -> {
+            String fieldName = ((FieldError) error).getField();
+            errors.put(fieldName, error.getDefaultMessage());
+        });
+        Map<String, Object> responseBody = new LinkedHashMap<>();
+        responseBody.put("errors", errors);
+        responseBody.put("message", "Validation failed");
+        responseBody.put("status", HttpStatus.BAD_REQUEST.value());
+        return responseBody;
+    }
+}
@@ -0,0 +1,73 @@
+package com.app.onlineshop.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.repository.ItemRepository;
+
+// Insert throughput of 1000-row saveAll calls: time-ordered ids (assigned in-process) against the
+// GenerationType.AUTO sequence table items used before (a locked table round trip per 50 ids)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdGenerationBenchmark {
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private AutoItemRepository autoItemRepository;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContext.start();
+        itemRepository = context.getBean(ItemRepository.class);
+        autoItemRepository = context.getBean(AutoItemRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Item> timeOrderedIds() {
+        return itemRepository.saveAll(BenchmarkData.items(ROWS, 10));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<AutoItem> autoSequenceTable() {
+        List<AutoItem> rows = new ArrayList<>(ROWS);
+        for (Item item : BenchmarkData.items(ROWS, 10)) {
+            rows.add(AutoItem.builder()
+                    .itemName(item.getItemName())
+                    .itemCode(item.getItemCode())
+                    .stock(item.getStock())
+                    .price(item.getPrice())
+                    .isAvailable(item.isAvailable())
+                    .build());
+        }
+        return autoItemRepository.saveAll(rows);
+    }
+}
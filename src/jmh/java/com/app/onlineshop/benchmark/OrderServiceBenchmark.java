@@ -0,0 +1,123 @@
+package com.app.onlineshop.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.app.onlineshop.DTO.request.OrderRequest;
+import com.app.onlineshop.DTO.response.OrderBatchLineResponse;
+import com.app.onlineshop.DTO.response.OrderResponse;
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.repository.ItemRepository;
+import com.app.onlineshop.service.OrderService;
+
+// Order placement through OrderService on the embedded database: single orders with one and
+// eight threads (items=1 puts every order on the same stock row), and the batch endpoint against
+// the same number of single calls.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderServiceBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1", "100"})
+    public int items;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private List<Long> customerIds;
+    private List<Long> itemIds;
+
+    @State(Scope.Thread)
+    public static class Requests {
+        Random random;
+        long sequence;
+
+        @Setup(Level.Trial)
+        public void seed(ThreadParams threadParams) {
+            random = new Random(BenchmarkData.SEED + threadParams.getThreadIndex());
+            sequence = (long) threadParams.getThreadIndex() << 40;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContext.start();
+        orderService = context.getBean(OrderService.class);
+        customerIds = new ArrayList<>();
+        for (Customer customer : context.getBean(CustomerRepository.class).saveAll(BenchmarkData.customers(100))) {
+            customerIds.add(customer.getCustomerId());
+        }
+        itemIds = new ArrayList<>();
+        // Enough stock that no measured order is ever rejected
+        for (Item item : context.getBean(ItemRepository.class).saveAll(BenchmarkData.items(items, Integer.MAX_VALUE))) {
+            itemIds.add(item.getItemId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public OrderResponse createOrder(Requests requests) {
+        return orderService.createOrder(next(requests));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public OrderResponse createOrderEightThreads(Requests requests) {
+        return orderService.createOrder(next(requests));
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<OrderBatchLineResponse> createOrdersBatch(Requests requests) {
+        List<OrderRequest> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(next(requests));
+        }
+        return orderService.createOrders(batch);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void createOrdersOneByOne(Requests requests, Blackhole blackhole) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(orderService.createOrder(next(requests)));
+        }
+    }
+
+    private OrderRequest next(Requests requests) {
+        return BenchmarkData.orderRequest(requests.random, customerIds, itemIds, requests.sequence++);
+    }
+}
@@ -0,0 +1,94 @@
+package com.app.onlineshop.benchmark;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.report.ReportDataVersion;
+import com.app.onlineshop.report.ReportFormat;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.repository.ItemRepository;
+import com.app.onlineshop.repository.OrderRepository;
+import com.app.onlineshop.service.ReportService;
+
+// Order report latency per request: compiling the template as every request did before the
+// template registry, then query + fill + export; a fill + export with the registry's compiled
+// template (data changed since the last report); and an export of the already filled report
+// (data unchanged)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ReportBenchmark {
+
+    @Param({"1000", "10000"})
+    public int orders;
+
+    @Param({"PDF", "CSV", "XLSX"})
+    public ReportFormat format;
+
+    private ConfigurableApplicationContext context;
+    private ReportService reportService;
+    private ReportDataVersion reportDataVersion;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContext.start();
+        reportService = context.getBean(ReportService.class);
+        reportDataVersion = context.getBean(ReportDataVersion.class);
+        List<Customer> customers = context.getBean(CustomerRepository.class).saveAll(BenchmarkData.customers(200));
+        List<Item> items = context.getBean(ItemRepository.class).saveAll(BenchmarkData.items(50, 1_000_000));
+        context.getBean(OrderRepository.class).saveAll(BenchmarkData.orders(orders, customers, items));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public JasperReport compileFillAndExport() throws Exception {
+        JasperReport jasperReport;
+        try (InputStream source = new ClassPathResource("Order.jrxml").getInputStream()) {
+            jasperReport = JasperCompileManager.compileReport(source);
+        }
+        reportDataVersion.markChanged();
+        reportService.exportReport(format, OutputStream.nullOutputStream());
+        return jasperReport;
+    }
+
+    @Benchmark
+    public void fillAndExport() throws Exception {
+        reportDataVersion.markChanged();
+        reportService.exportReport(format, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void exportFilled() throws Exception {
+        reportService.exportReport(format, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,99 @@
+package com.app.onlineshop.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// Jackson cost of the list endpoints: one page body of orders (with their customer and item),
+// items and customers, shaped like the controllers build it. Sizes are the default page (50)
+// and the largest page allowed (500).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"50", "500"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> orderPage;
+    private Map<String, Object> itemPage;
+    private Map<String, Object> customerPage;
+
+    @Setup
+    public void createPages() {
+        // Same date handling as the application's mapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        List<Order> orders = BenchmarkData.ordersWithIds(size);
+        Set<Item> items = new LinkedHashSet<>();
+        Set<Customer> customers = new LinkedHashSet<>();
+        for (Order order : orders) {
+            items.add(order.getItem());
+            customers.add(order.getCustomer());
+        }
+        orderPage = page("orders", orders);
+        itemPage = page("items", pad(new ArrayList<>(items)));
+        customerPage = page("customers", pad(new ArrayList<>(customers)));
+    }
+
+    @Benchmark
+    public byte[] orders() throws Exception {
+        return objectMapper.writeValueAsBytes(orderPage);
+    }
+
+    @Benchmark
+    public byte[] items() throws Exception {
+        return objectMapper.writeValueAsBytes(itemPage);
+    }
+
+    @Benchmark
+    public byte[] customers() throws Exception {
+        return objectMapper.writeValueAsBytes(customerPage);
+    }
+
+    // Repeats rows up to the page size; the order dataset has fewer distinct items and customers
+    private <T> List<T> pad(List<T> rows) {
+        List<T> page = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            page.add(rows.get(i % rows.size()));
+        }
+        return page;
+    }
+
+    private Map<String, Object> page(String name, List<?> rows) {
+        Map<String, Object> responseBody = new LinkedHashMap<>();
+        responseBody.put(name, rows);
+        responseBody.put("nextCursor", (long) size);
+        responseBody.put("limit", size);
+        return responseBody;
+    }
+}
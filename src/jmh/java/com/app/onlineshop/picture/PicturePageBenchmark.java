@@ -0,0 +1,116 @@
+package com.app.onlineshop.picture;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Picture bytes a browser downloads to render one 100-customer list page, with the full-size
+// originals against each thumbnail size. Each measured op is one page, so the "bytes" counter in
+// the results is bytes per page. Pictures are seeded 1600x1200 images with a gradient and noise,
+// which compress about as badly as photos do.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PicturePageBenchmark {
+    private static final int PAGE_SIZE = 100;
+
+    private List<byte[]> originals;
+    private List<byte[]> thumbnails64;
+    private List<byte[]> thumbnails256;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Transfer {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void createPictures() throws Exception {
+        Random random = new Random(42L);
+        originals = new ArrayList<>(PAGE_SIZE);
+        thumbnails64 = new ArrayList<>(PAGE_SIZE);
+        thumbnails256 = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            BufferedImage picture = syntheticPhoto(random, 1600, 1200);
+            originals.add(ThumbnailGenerator.encodeJpeg(picture, 0.9f));
+            thumbnails64.add(ThumbnailGenerator.encodeJpeg(ThumbnailGenerator.resize(picture, 64), 0.8f));
+            thumbnails256.add(ThumbnailGenerator.encodeJpeg(ThumbnailGenerator.resize(picture, 256), 0.8f));
+        }
+    }
+
+    @Benchmark
+    public void originals(Transfer transfer, Blackhole blackhole) {
+        download(originals, transfer, blackhole);
+    }
+
+    @Benchmark
+    public void thumbnails64(Transfer transfer, Blackhole blackhole) {
+        download(thumbnails64, transfer, blackhole);
+    }
+
+    @Benchmark
+    public void thumbnails256(Transfer transfer, Blackhole blackhole) {
+        download(thumbnails256, transfer, blackhole);
+    }
+
+    private static void download(List<byte[]> pictures, Transfer transfer, Blackhole blackhole) {
+        for (byte[] picture : pictures) {
+            blackhole.consume(picture.clone());
+            transfer.bytes += picture.length;
+        }
+    }
+
+    private static BufferedImage syntheticPhoto(Random random, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)),
+                    width, height, new Color(random.nextInt(0xFFFFFF))));
+            graphics.fillRect(0, 0, width, height);
+        } finally {
+            graphics.dispose();
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(32) - 16;
+                int rgb = image.getRGB(x, y);
+                int r = clamp(((rgb >> 16) & 0xFF) + noise);
+                int g = clamp(((rgb >> 8) & 0xFF) + noise);
+                int b = clamp((rgb & 0xFF) + noise);
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,15 @@
+package com.app.onlineshop.DTO.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class OrderBatchRequest {
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = 5000, message = "At most 5000 orders per batch")
+    private List<@Valid OrderRequest> orders;
+}
@@ -0,0 +1,10 @@
+package com.app.onlineshop.DTO.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class PictureConfirmRequest {
+    @NotBlank(message = "Object key is required")
+    private String objectKey;
+}
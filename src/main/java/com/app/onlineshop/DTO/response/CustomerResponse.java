@@ -1,9 +1,15 @@
 package com.app.onlineshop.DTO.response;
 
+import com.app.onlineshop.picture.PictureUrlSerializer;
+import com.app.onlineshop.picture.ThumbnailGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.util.Date;
+import java.util.Map;
 
 @Data
 @AllArgsConstructor
@@ -16,5 +22,14 @@ public class CustomerResponse {
     private String customerPhone;
     private boolean isActive;
     private Date lastOrder;
+    @JsonSerialize(using = PictureUrlSerializer.class)
     private String pic;
+    @JsonIgnore
+    private boolean thumbnailsReady;
+
+    // Keys of the resized copies of pic by size ("64", "256"), serialized as presigned URLs
+    @JsonSerialize(contentUsing = PictureUrlSerializer.class)
+    public Map<String, String> getPicThumbnails() {
+        return ThumbnailGenerator.thumbnailKeys(pic, thumbnailsReady);
+    }
 }
@@ -0,0 +1,69 @@
+package com.app.onlineshop.DTO.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import lombok.Value;
+
+import java.util.Date;
+import java.util.Map;
+
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.picture.PictureUrlSerializer;
+import com.app.onlineshop.picture.ThumbnailGenerator;
+
+// Immutable copy of a Customer, safe to keep in the lookup cache and share between threads.
+// Serializes like the entity.
+@Value
+public class CustomerSnapshot {
+    Long customerId;
+    String customerName;
+    String customerAddress;
+    String customerCode;
+    String customerPhone;
+    boolean isActive;
+    Date lastOrder;
+    @JsonSerialize(using = PictureUrlSerializer.class)
+    String pic;
+    @JsonIgnore
+    boolean thumbnailsReady;
+    Long version;
+    Date lastModified;
+
+    public static CustomerSnapshot from(Customer customer) {
+        return new CustomerSnapshot(
+                customer.getCustomerId(),
+                customer.getCustomerName(),
+                customer.getCustomerAddress(),
+                customer.getCustomerCode(),
+                customer.getCustomerPhone(),
+                customer.isActive(),
+                copy(customer.getLastOrder()),
+                customer.getPic(),
+                customer.isThumbnailsReady(),
+                customer.getVersion(),
+                copy(customer.getLastModified()));
+    }
+
+    public Date getLastOrder() {
+        return copy(lastOrder);
+    }
+
+    public Date getLastModified() {
+        return copy(lastModified);
+    }
+
+    // Keys of the resized copies of pic by size ("64", "256"), serialized as presigned URLs
+    @JsonSerialize(contentUsing = PictureUrlSerializer.class)
+    public Map<String, String> getPicThumbnails() {
+        return ThumbnailGenerator.thumbnailKeys(pic, thumbnailsReady);
+    }
+
+    public ResourceVersion resourceVersion() {
+        return new ResourceVersion(version, lastModified);
+    }
+
+    private static Date copy(Date date) {
+        return date != null ? new Date(date.getTime()) : null;
+    }
+}
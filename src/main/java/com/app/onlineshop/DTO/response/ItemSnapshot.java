@@ -0,0 +1,51 @@
+package com.app.onlineshop.DTO.response;
+
+import lombok.Value;
+
+import java.util.Date;
+
+import com.app.onlineshop.model.Item;
+
+// Immutable copy of an Item, safe to keep in the lookup cache and share between threads.
+// Serializes like the entity.
+@Value
+public class ItemSnapshot {
+    Long itemId;
+    String itemName;
+    String itemCode;
+    int stock;
+    Double price;
+    boolean isAvailable;
+    Date lastRestock;
+    Long version;
+    Date lastModified;
+
+    public static ItemSnapshot from(Item item) {
+        return new ItemSnapshot(
+                item.getItemId(),
+                item.getItemName(),
+                item.getItemCode(),
+                item.getStock(),
+                item.getPrice(),
+                item.isAvailable(),
+                copy(item.getLastRestock()),
+                item.getVersion(),
+                copy(item.getLastModified()));
+    }
+
+    public Date getLastRestock() {
+        return copy(lastRestock);
+    }
+
+    public Date getLastModified() {
+        return copy(lastModified);
+    }
+
+    public ResourceVersion resourceVersion() {
+        return new ResourceVersion(version, lastModified);
+    }
+
+    private static Date copy(Date date) {
+        return date != null ? new Date(date.getTime()) : null;
+    }
+}
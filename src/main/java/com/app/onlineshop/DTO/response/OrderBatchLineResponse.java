@@ -0,0 +1,15 @@
+package com.app.onlineshop.DTO.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderBatchLineResponse {
+    private int index;
+    private boolean created;
+    private OrderResponse order;
+    private String message;
+}
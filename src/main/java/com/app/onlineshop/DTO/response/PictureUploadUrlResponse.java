@@ -0,0 +1,16 @@
+package com.app.onlineshop.DTO.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PictureUploadUrlResponse {
+    private String objectKey;
+    private String uploadUrl;
+    private Date expiresAt;
+}
@@ -0,0 +1,39 @@
+package com.app.onlineshop.DTO.response;
+
+import lombok.Getter;
+
+import java.util.Date;
+
+@Getter
+public class ResourceVersion {
+    // Strong entity tag, already quoted
+    private String eTag;
+    // Epoch millis, or -1 when no row carries a modification time yet
+    private long lastModified;
+
+    // Version of a single row
+    public ResourceVersion(Long version, Date lastModified) {
+        this.eTag = "\"" + (version != null ? version : 0L) + "\"";
+        this.lastModified = lastModified != null ? lastModified.getTime() : -1;
+    }
+
+    // Version of a whole table, built from its row count, version sum and highest id. It has no
+    // modification time: a delete leaves no newer row behind, so If-Modified-Since would miss it.
+    public ResourceVersion(Long count, Long versionSum, Long maxId) {
+        this.eTag = "\"" + count + "-" + versionSum + "-" + maxId + "\"";
+        this.lastModified = -1;
+    }
+
+    private ResourceVersion(String eTag, long lastModified) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
+    // This version, also changed by every new signing epoch, for bodies that embed presigned URLs:
+    // a client holding the body must refetch it before those URLs expire. Last-Modified moves up to
+    // the start of the epoch, so If-Modified-Since stops matching too.
+    public ResourceVersion withSigningEpoch(long epoch, long epochStart) {
+        String tag = eTag.substring(0, eTag.length() - 1) + "-s" + epoch + "\"";
+        return new ResourceVersion(tag, lastModified >= 0 ? Math.max(lastModified, epochStart) : -1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.app.onlineshop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String ITEMS = "items";
+    public static final String CUSTOMERS = "customers";
+
+    // Caffeine caches of immutable snapshots for catalog lookups. Puts and evictions inside a
+    // transaction are deferred until it commits, so a reader racing an update can still re-cache
+    // the old row; lookups therefore check the snapshot against the row's version before using it.
+    @Bean
+    public CacheManager cacheManager(@Value("${application.cache.spec}") String cacheSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(ITEMS, CUSTOMERS);
+        caffeineCacheManager.setCacheSpecification(cacheSpec);
+        caffeineCacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,37 @@
+package com.app.onlineshop.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.app.onlineshop.timing.SqlStatementListener;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+@Configuration
+public class DataSourceProxyConfig {
+
+    // Wraps the Hikari pool once it is configured, so every statement passes SqlStatementListener.
+    // The proxy unwraps to HikariDataSource, which keeps the pool metrics working.
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(
+            @Value("${application.sql.repeatedStatementThreshold:5}") int repeatedStatementThreshold) {
+        SqlStatementListener listener = new SqlStatementListener(repeatedStatementThreshold);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.app.onlineshop.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@RestController
+@RequestMapping("api/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Endpoint to get hit/miss/eviction statistics of the catalog caches and the Hibernate second-level cache
+    @GetMapping("/stats")
+    public ResponseEntity<Object> getCacheStats() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache)) {
+                continue;
+            }
+            com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache =
+                    (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+            CacheStats stats = nativeCache.stats();
+            Map<String, Object> cacheStats = new LinkedHashMap<>();
+            cacheStats.put("size", nativeCache.estimatedSize());
+            cacheStats.put("hits", stats.hitCount());
+            cacheStats.put("misses", stats.missCount());
+            cacheStats.put("hitRate", stats.hitRate());
+            cacheStats.put("evictions", stats.evictionCount());
+            caches.put(cacheName, cacheStats);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            if (regionStatistics == null) {
+                continue;
+            }
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("size", regionStatistics.getElementCountInMemory());
+            regionStats.put("hits", regionStatistics.getHitCount());
+            regionStats.put("misses", regionStatistics.getMissCount());
+            regionStats.put("puts", regionStatistics.getPutCount());
+            regions.put(regionName, regionStats);
+        }
+        Map<String, Object> secondLevel = new LinkedHashMap<>();
+        secondLevel.put("enabled", statistics.isStatisticsEnabled());
+        secondLevel.put("regions", regions);
+        secondLevel.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        secondLevel.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+
+        Map<String, Object> responseBody = new LinkedHashMap<>();
+        responseBody.put("caches", caches);
+        responseBody.put("secondLevel", secondLevel);
+        responseBody.put("status", HttpStatus.OK.value());
+        return ResponseEntity.ok(responseBody);
+    }
+}
@@ -0,0 +1,51 @@
+package com.app.onlineshop.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.app.onlineshop.DTO.response.ResourceVersion;
+
+// Evaluates If-None-Match / If-Modified-Since against a version read before the entity is loaded
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    // If-None-Match wins when present; If-Modified-Since is only a fallback for clients without the ETag
+    static boolean isNotModified(HttpHeaders requestHeaders, ResourceVersion version) {
+        if (requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH)) {
+            for (String tag : requestHeaders.getIfNoneMatch()) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(version.getETag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        // HTTP dates carry whole seconds only
+        return ifModifiedSince >= 0 && version.getLastModified() >= 0
+                && version.getLastModified() / 1000 * 1000 <= ifModifiedSince;
+    }
+
+    static ResponseEntity<Object> notModified(ResourceVersion version) {
+        return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version).build();
+    }
+
+    static ResponseEntity.BodyBuilder ok(ResourceVersion version) {
+        return withValidators(ResponseEntity.ok(), version);
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder,
+            ResourceVersion version) {
+        builder.eTag(version.getETag());
+        if (version.getLastModified() >= 0) {
+            builder.lastModified(version.getLastModified());
+        }
+        return builder;
+    }
+}
@@ -1,14 +1,22 @@
 package com.app.onlineshop.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import com.app.onlineshop.DTO.request.CustomerRequest;
+import com.app.onlineshop.DTO.request.PictureConfirmRequest;
 import com.app.onlineshop.DTO.response.CustomerResponse;
+import com.app.onlineshop.DTO.response.CustomerSnapshot;
+import com.app.onlineshop.DTO.response.PictureUploadUrlResponse;
+import com.app.onlineshop.DTO.response.ResourceVersion;
 import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.picture.PictureUrlResolver;
 import com.app.onlineshop.service.CustomerService;
 import jakarta.validation.Valid;
 import java.util.LinkedHashMap;
@@ -23,18 +31,47 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
 
-    // Endpoint to get all customers
+    @Autowired
+    private PictureUrlResolver pictureUrlResolver;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Endpoint to get customers, one keyset page at a time (?after=<customerId>&limit=N)
     @GetMapping
-    public ResponseEntity<Object> getAllCustomers() {
+    public ResponseEntity<Object> getAllCustomers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader HttpHeaders requestHeaders) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("message", "Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+            responseBody.put("status", HttpStatus.BAD_REQUEST.value());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responseBody);
+        }
         try {
-            List<Customer> customers = customerService.getAllCustomers();
-            if (customers.isEmpty()) {
+            // Answer polls from the collection version alone; the page is only loaded when it changed.
+            // Bodies carry presigned picture URLs, so the version also moves with the signing epoch.
+            ResourceVersion collectionVersion = pictureUrlResolver.withSigningEpoch(
+                    customerService.getCustomersVersion());
+            if (ConditionalGet.isNotModified(requestHeaders, collectionVersion)) {
+                return ConditionalGet.notModified(collectionVersion);
+            }
+            List<Customer> customers = customerService.getCustomersAfter(after, limit);
+            if (customers.isEmpty() && after == null) {
                 Map<String, Object> responseBody = new LinkedHashMap<>();
                 responseBody.put("message", "No customers found.");
                 responseBody.put("status", HttpStatus.NOT_FOUND.value());
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(responseBody);
             }
-            return ResponseEntity.ok(customers);
+            // A full page means there may be more rows after the last id
+            Long nextCursor = customers.size() == limit
+                    ? customers.get(customers.size() - 1).getCustomerId()
+                    : null;
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("customers", customers);
+            responseBody.put("nextCursor", nextCursor);
+            responseBody.put("limit", limit);
+            return ConditionalGet.ok(collectionVersion).body(responseBody);
         } catch (Exception e) {
             String errorMessage = "Error fetching customers: " + e.getMessage();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMessage);
@@ -43,11 +80,20 @@ public class CustomerController {
 
     // Endpoint to get customer by Id
     @GetMapping("/{customerId}")
-    public ResponseEntity<Object> getCustomerById(@PathVariable Long customerId) {
+    public ResponseEntity<Object> getCustomerById(
+            @PathVariable Long customerId,
+            @RequestHeader HttpHeaders requestHeaders) {
         try {
-            Optional<Customer> customerOptional = customerService.getCustomerById(customerId);
+            Optional<ResourceVersion> version = customerService.getCustomerVersion(customerId)
+                    .map(pictureUrlResolver::withSigningEpoch);
+            if (version.isPresent() && ConditionalGet.isNotModified(requestHeaders, version.get())) {
+                return ConditionalGet.notModified(version.get());
+            }
+            Optional<CustomerSnapshot> customerOptional = customerService.getCustomerById(customerId);
             if (customerOptional.isPresent()) {
-                return ResponseEntity.ok(customerOptional.get());
+                CustomerSnapshot customer = customerOptional.get();
+                return ConditionalGet.ok(pictureUrlResolver.withSigningEpoch(customer.resourceVersion()))
+                        .body(customer);
             } else {
                 Map<String, Object> responseBody = new LinkedHashMap<>();
                 String errorMessage = "Customer with ID " + customerId + " not found.";
@@ -89,6 +135,13 @@ public class CustomerController {
             responseBody.put("message", "Customer with ID " + customerId + " successfully updated.");
             responseBody.put("status", HttpStatus.OK.value());
             return ResponseEntity.ok(responseBody);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // The row changed between read and write (a concurrent customer or picture update); the client should reload
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            String errorMessage = "Customer with ID " + customerId + " was modified concurrently, reload and retry.";
+            responseBody.put("message", errorMessage);
+            responseBody.put("status", HttpStatus.CONFLICT.value());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(responseBody);
         } catch (RuntimeException e) {
             Map<String, Object> responseBody = new LinkedHashMap<>();
             String errorMessage = "Customer with ID " + customerId + " not found.";
@@ -101,6 +154,44 @@ public class CustomerController {
         }
     }
 
+    // Endpoint to get a short-lived URL for uploading a customer picture straight to the object store
+    @PostMapping("/{customerId}/picture/upload-url")
+    public ResponseEntity<Object> createPictureUploadUrl(@PathVariable Long customerId) {
+        try {
+            PictureUploadUrlResponse response = customerService.createPictureUploadUrl(customerId);
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("upload", response);
+            responseBody.put("message", "PUT the picture to uploadUrl, then confirm the object key.");
+            responseBody.put("status", HttpStatus.OK.value());
+            return ResponseEntity.ok(responseBody);
+        } catch (ResponseStatusException e) {
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("message", e.getReason());
+            responseBody.put("status", e.getStatusCode().value());
+            return ResponseEntity.status(e.getStatusCode()).body(responseBody);
+        }
+    }
+
+    // Endpoint to attach a picture uploaded through a presigned URL
+    @PostMapping("/{customerId}/picture/confirm")
+    public ResponseEntity<Object> confirmPicture(
+            @PathVariable Long customerId,
+            @Valid @RequestBody PictureConfirmRequest requestDTO) {
+        try {
+            CustomerResponse response = customerService.confirmPicture(customerId, requestDTO.getObjectKey());
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("customer", response);
+            responseBody.put("message", "Picture attached to customer with ID " + customerId + ".");
+            responseBody.put("status", HttpStatus.OK.value());
+            return ResponseEntity.ok(responseBody);
+        } catch (ResponseStatusException e) {
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("message", e.getReason());
+            responseBody.put("status", e.getStatusCode().value());
+            return ResponseEntity.status(e.getStatusCode()).body(responseBody);
+        }
+    }
+
     // Endpoint to delete a customer by ID
     @DeleteMapping("/delete/{customerId}")
     public ResponseEntity<Object> deleteCustomer(@PathVariable Long customerId) {
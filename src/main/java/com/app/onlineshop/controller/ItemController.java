@@ -1,14 +1,18 @@
 package com.app.onlineshop.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
 import com.app.onlineshop.DTO.request.ItemRequest;
 import com.app.onlineshop.DTO.response.ItemResponse;
+import com.app.onlineshop.DTO.response.ItemSnapshot;
+import com.app.onlineshop.DTO.response.ResourceVersion;
 import com.app.onlineshop.model.Item;
 import com.app.onlineshop.service.ItemService;
 
@@ -26,18 +30,40 @@ public class ItemController {
     @Autowired
     private ItemService itemService;
 
-    // Endpoint get all items
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Endpoint get items, one keyset page at a time (?after=<itemId>&limit=N)
     @GetMapping
-    public ResponseEntity<Object> getAllItems() {
+    public ResponseEntity<Object> getAllItems(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader HttpHeaders requestHeaders) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("message", "Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+            responseBody.put("status", HttpStatus.BAD_REQUEST.value());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responseBody);
+        }
         try {
-            List<Item> items = itemService.getAllItems();
-            if (items.isEmpty()) {
+            // Answer polls from the collection version alone; the page is only loaded when it changed
+            ResourceVersion collectionVersion = itemService.getCatalogVersion();
+            if (ConditionalGet.isNotModified(requestHeaders, collectionVersion)) {
+                return ConditionalGet.notModified(collectionVersion);
+            }
+            List<Item> items = itemService.getItemsAfter(after, limit);
+            if (items.isEmpty() && after == null) {
                 Map<String, Object> responseBody = new LinkedHashMap<>();
                 responseBody.put("message", "No items found.");
                 responseBody.put("status", HttpStatus.NOT_FOUND.value());
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(responseBody);
             }
-            return ResponseEntity.ok(items);
+            // A full page means there may be more rows after the last id
+            Long nextCursor = items.size() == limit ? items.get(items.size() - 1).getItemId() : null;
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("items", items);
+            responseBody.put("nextCursor", nextCursor);
+            responseBody.put("limit", limit);
+            return ConditionalGet.ok(collectionVersion).body(responseBody);
         } catch (Exception e) {
             String errorMessage = "Error fetching items: " + e.getMessage();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMessage);
@@ -46,11 +72,18 @@ public class ItemController {
 
     // Endpoint to get item by Id
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable Long itemId) {
+    public ResponseEntity<Object> getItemById(
+            @PathVariable Long itemId,
+            @RequestHeader HttpHeaders requestHeaders) {
         try {
-            Optional<Item> itemOptional = itemService.getItemById(itemId);
+            Optional<ResourceVersion> version = itemService.getItemVersion(itemId);
+            if (version.isPresent() && ConditionalGet.isNotModified(requestHeaders, version.get())) {
+                return ConditionalGet.notModified(version.get());
+            }
+            Optional<ItemSnapshot> itemOptional = itemService.getItemById(itemId);
             if (itemOptional.isPresent()) {
-                return ResponseEntity.ok(itemOptional.get());
+                ItemSnapshot item = itemOptional.get();
+                return ConditionalGet.ok(item.resourceVersion()).body(item);
             } else {
                 Map<String, Object> responseBody = new LinkedHashMap<>();
                 String errorMessage = "Item with ID " + itemId + " not found.";
@@ -92,6 +125,13 @@ public class ItemController {
             responseBody.put("message", "Item with ID " + itemId + " successfully updated.");
             responseBody.put("status", HttpStatus.OK.value());
             return ResponseEntity.ok(responseBody);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // The row changed between read and write (e.g. an order took stock); the client should reload
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            String errorMessage = "Item with ID " + itemId + " was modified concurrently, reload and retry.";
+            responseBody.put("message", errorMessage);
+            responseBody.put("status", HttpStatus.CONFLICT.value());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(responseBody);
         } catch (RuntimeException e) {
             Map<String, Object> responseBody = new LinkedHashMap<>();
             String errorMessage = "Item with ID " + itemId + " not found.";
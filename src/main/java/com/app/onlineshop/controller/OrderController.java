@@ -1,18 +1,22 @@
 package com.app.onlineshop.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.app.onlineshop.DTO.request.ItemRequest;
+import com.app.onlineshop.DTO.request.OrderBatchRequest;
 import com.app.onlineshop.DTO.request.OrderRequest;
 import com.app.onlineshop.DTO.response.ItemResponse;
+import com.app.onlineshop.DTO.response.OrderBatchLineResponse;
 import com.app.onlineshop.DTO.response.OrderResponse;
 import com.app.onlineshop.model.Item;
-import com.app.onlineshop.model.Order;
 import com.app.onlineshop.service.OrderService;
 
 import jakarta.validation.Valid;
@@ -28,29 +32,55 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
-    // Endpoint get all items
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Endpoint get orders, one keyset page at a time (?after=<orderId>&limit=N)
     @GetMapping
-    public ResponseEntity<Object> getAllOrders() {
+    public ResponseEntity<Object> getAllOrders(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("message", "Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+            responseBody.put("status", HttpStatus.BAD_REQUEST.value());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responseBody);
+        }
         try {
-            List<Order> items = orderService.getAllOrders();
-            if (items.isEmpty()) {
+            List<OrderResponse> orders = orderService.getOrdersAfter(after, limit);
+            if (orders.isEmpty() && after == null) {
                 Map<String, Object> responseBody = new LinkedHashMap<>();
                 responseBody.put("message", "No orders found.");
                 responseBody.put("status", HttpStatus.NOT_FOUND.value());
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(responseBody);
             }
-            return ResponseEntity.ok(items);
+            // A full page means there may be more rows after the last id
+            Long nextCursor = orders.size() == limit ? orders.get(orders.size() - 1).getOrderId() : null;
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("orders", orders);
+            responseBody.put("nextCursor", nextCursor);
+            responseBody.put("limit", limit);
+            return ResponseEntity.ok(responseBody);
         } catch (Exception e) {
             String errorMessage = "Error fetching orders: " + e.getMessage();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMessage);
         }
     }
 
+    // Endpoint to export all orders as newline-delimited JSON, streamed row by row
+    @GetMapping("/export.ndjson")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = outputStream -> orderService.exportOrders(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.ndjson\"")
+                .body(body);
+    }
+
     // Endpoint to get item by Id
     @GetMapping("/{orderId}")
     public ResponseEntity<Object> getOrderById(@PathVariable Long orderId) {
         try {
-            Optional<Order> orderOptional = orderService.getOrderById(orderId);
+            Optional<OrderResponse> orderOptional = orderService.getOrderById(orderId);
             if (orderOptional.isPresent()) {
                 return ResponseEntity.ok(orderOptional.get());
             } else {
@@ -98,6 +128,27 @@ public class OrderController {
         }
     }
 
+    // Endpoint to create many orders in one call; each line reports its own outcome
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createOrders(@Valid @RequestBody OrderBatchRequest requestDTO) {
+        try {
+            List<OrderBatchLineResponse> results = orderService.createOrders(requestDTO.getOrders());
+            long created = results.stream().filter(OrderBatchLineResponse::isCreated).count();
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("results", results);
+            responseBody.put("created", created);
+            responseBody.put("failed", results.size() - created);
+            responseBody.put("message", created + " of " + results.size() + " orders created.");
+            responseBody.put("status", HttpStatus.OK.value());
+            return ResponseEntity.ok(responseBody);
+        } catch (Exception e) {
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("message", "Error creating orders: " + e.getMessage());
+            responseBody.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(responseBody);
+        }
+    }
+
     @PutMapping("/update/{orderId}")
     public ResponseEntity<Object> updateOrder(
             @PathVariable Long orderId,
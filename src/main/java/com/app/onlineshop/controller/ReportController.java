@@ -1,19 +1,33 @@
 package com.app.onlineshop.controller;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.app.onlineshop.report.ReportFormat;
+import com.app.onlineshop.report.ReportJob;
+import com.app.onlineshop.service.ReportJobService;
 import com.app.onlineshop.service.ReportService;
 
 import net.sf.jasperreports.engine.JRException;
 
-import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 
 @RequestMapping("/store/report/")
 @RestController
@@ -21,8 +35,128 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportJobService reportJobService;
+
+    // Endpoint to download the order report; the document is written straight to the response
     @GetMapping("{format}")
-    public ResponseEntity<?> exportReport(@PathVariable String format) throws FileNotFoundException, JRException {
-        return reportService.exportReport(format);
+    public ResponseEntity<?> exportReport(@PathVariable String format) {
+        Optional<ReportFormat> reportFormat = ReportFormat.fromName(format);
+        if (reportFormat.isEmpty()) {
+            return unsupportedFormat(format);
+        }
+
+        ReportFormat selected = reportFormat.get();
+        StreamingResponseBody body = outputStream -> {
+            try {
+                reportService.exportReport(selected, outputStream);
+            } catch (JRException e) {
+                throw new IOException("Error generating report: " + e.getMessage(), e);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(selected.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(selected))
+                .body(body);
+    }
+
+    // Endpoint to start a report job; returns immediately with the job id
+    @PostMapping("jobs")
+    public ResponseEntity<Object> submitReportJob(@RequestParam String format) {
+        Optional<ReportFormat> reportFormat = ReportFormat.fromName(format);
+        if (reportFormat.isEmpty()) {
+            return unsupportedFormat(format);
+        }
+        try {
+            ReportJob job = reportJobService.submit(reportFormat.get());
+            Map<String, Object> responseBody = jobBody(job);
+            responseBody.put("message", "Report job accepted.");
+            responseBody.put("status", HttpStatus.ACCEPTED.value());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/store/report/jobs/" + job.getJobId())
+                    .body(responseBody);
+        } catch (RejectedExecutionException e) {
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("message", "Too many report jobs queued, try again later.");
+            responseBody.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(responseBody);
+        }
+    }
+
+    // Endpoint to get the status of a report job
+    @GetMapping("jobs/{jobId}")
+    public ResponseEntity<Object> getReportJob(@PathVariable String jobId) {
+        Optional<ReportJob> job = reportJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            return jobNotFound(jobId);
+        }
+        Map<String, Object> responseBody = jobBody(job.get());
+        responseBody.put("status", HttpStatus.OK.value());
+        return ResponseEntity.ok(responseBody);
+    }
+
+    // Endpoint to download the artifact of a finished report job
+    @GetMapping("jobs/{jobId}/result")
+    public ResponseEntity<Object> getReportJobResult(@PathVariable String jobId) throws IOException {
+        Optional<ReportJob> job = reportJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            return jobNotFound(jobId);
+        }
+        ReportJob reportJob = job.get();
+        if (reportJob.getStatus() != ReportJob.Status.DONE) {
+            Map<String, Object> responseBody = jobBody(reportJob);
+            responseBody.put("message", "Report job " + jobId + " has no result yet.");
+            responseBody.put("status", HttpStatus.CONFLICT.value());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(responseBody);
+        }
+        // Held open until the response is written, so the cleanup cannot delete the file mid-download
+        Optional<InputStream> artifact = reportJobService.openArtifact(reportJob);
+        if (artifact.isEmpty()) {
+            return jobNotFound(jobId);
+        }
+        return ResponseEntity.ok()
+                .contentType(reportJob.getFormat().getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(reportJob.getFormat()))
+                .body(new InputStreamResource(artifact.get()));
+    }
+
+    private Map<String, Object> jobBody(ReportJob job) {
+        Map<String, Object> responseBody = new LinkedHashMap<>();
+        responseBody.put("jobId", job.getJobId());
+        responseBody.put("format", job.getFormat().getExtension());
+        responseBody.put("jobStatus", job.getStatus());
+        responseBody.put("createdAt", job.getCreatedAt());
+        responseBody.put("completedAt", job.getCompletedAt());
+        responseBody.put("expiresAt", job.getExpiresAt());
+        if (job.getStatus() == ReportJob.Status.DONE) {
+            responseBody.put("resultUrl", "/store/report/jobs/" + job.getJobId() + "/result");
+        }
+        if (job.getError() != null) {
+            responseBody.put("error", job.getError());
+        }
+        return responseBody;
+    }
+
+    private ResponseEntity<Object> jobNotFound(String jobId) {
+        Map<String, Object> responseBody = new LinkedHashMap<>();
+        responseBody.put("message", "Report job " + jobId + " not found.");
+        responseBody.put("status", HttpStatus.NOT_FOUND.value());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(responseBody);
+    }
+
+    private ResponseEntity<Object> unsupportedFormat(String format) {
+        Map<String, Object> responseBody = new LinkedHashMap<>();
+        responseBody.put("message", "Unsupported report format: " + format);
+        responseBody.put("status", HttpStatus.BAD_REQUEST.value());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(responseBody);
+    }
+
+    private String attachment(ReportFormat format) {
+        return ContentDisposition.attachment()
+                .filename("Order." + format.getExtension())
+                .build()
+                .toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,228 @@
+package com.app.onlineshop.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.onlineshop.config.CacheConfig;
+import com.app.onlineshop.repository.ItemRepository;
+import com.app.onlineshop.repository.OrderRepository;
+
+import jakarta.annotation.PostConstruct;
+
+// Opt-in stock reservation for "hot" items (application.inventory.hotItems).
+//
+// Stock for a hot item lives in a striped in-memory counter, so orders reserve without writing
+// the items row. Each committed order is marked stock_pending; a scheduled flush takes the
+// summed quantity of pending orders from items.stock in one transaction and clears the marks.
+// Because pending orders are the durable record, a crash loses nothing: startup flushes any
+// leftovers before seeding the counters. Counters are per JVM, so a hot item must only take
+// orders through one application node.
+@Component
+public class InventoryReservationEngine {
+    private static final Logger log = LoggerFactory.getLogger(InventoryReservationEngine.class);
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${application.inventory.hotItems:}")
+    private List<Long> hotItemIds;
+
+    @Value("${application.inventory.stripes:8}")
+    private int stripes;
+
+    private final Map<Long, HotItem> hotItems = new ConcurrentHashMap<>();
+    private TransactionTemplate flushTransaction;
+
+    @PostConstruct
+    public void reconcile() {
+        flushTransaction = new TransactionTemplate(transactionManager);
+        flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Apply reservations left pending by a previous run, for any item
+        List<Long> pendingItemIds = orderRepository.findItemIdsWithPendingStock();
+        for (Long itemId : pendingItemIds) {
+            flushPending(itemId);
+        }
+        for (Long itemId : hotItemIds) {
+            hotItems.put(itemId, new HotItem(stripes));
+            resync(itemId);
+        }
+        if (!hotItems.isEmpty()) {
+            log.info("Inventory reservation enabled for items {}", hotItems.keySet());
+        }
+    }
+
+    public boolean isHot(Long itemId) {
+        return hotItems.containsKey(itemId);
+    }
+
+    // Reserves stock for the current transaction; the reservation is returned if it rolls back
+    public boolean reserve(Long itemId, int quantity) {
+        HotItem hotItem = hotItems.get(itemId);
+        // Count the reservation as in flight before checking for a resync, which sets the flag before
+        // reading inFlight: either the resync sees this reservation or this reservation waits for it
+        hotItem.inFlight.add(quantity);
+        while (hotItem.resyncing) {
+            hotItem.inFlight.add(-quantity);
+            synchronized (hotItem) {
+                // Held by the resync until it has reset the counter
+            }
+            hotItem.inFlight.add(quantity);
+        }
+        if (!hotItem.counter.tryReserve(quantity)) {
+            hotItem.inFlight.add(-quantity);
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    hotItem.inFlight.add(-quantity);
+                    if (status != STATUS_COMMITTED) {
+                        hotItem.counter.release(quantity);
+                    }
+                }
+            });
+        } else {
+            hotItem.inFlight.add(-quantity);
+        }
+        return true;
+    }
+
+    // Returns stock to the counter once the current transaction commits
+    public void release(Long itemId, int quantity) {
+        HotItem hotItem = hotItems.get(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    hotItem.counter.release(quantity);
+                }
+            });
+        } else {
+            hotItem.counter.release(quantity);
+        }
+    }
+
+    public int available(Long itemId) {
+        HotItem hotItem = hotItems.get(itemId);
+        return hotItem != null ? hotItem.counter.available() : 0;
+    }
+
+    // Reloads a hot item's counter from the database, e.g. after a manual stock change.
+    // New reservations wait while it runs. The ones not yet completed are read first, then stock minus
+    // committed pending orders in one statement; an order committing in between is subtracted twice,
+    // so a resync can under-sell but never oversell.
+    public void resync(Long itemId) {
+        HotItem hotItem = hotItems.get(itemId);
+        if (hotItem == null) {
+            return;
+        }
+        synchronized (hotItem) {
+            hotItem.resyncing = true;
+            try {
+                long inFlight = hotItem.inFlight.sum();
+                // Own transaction: this may run from an afterCommit callback of the caller
+                Long stock = flushTransaction.execute(status ->
+                        itemRepository.findStockAfterPending(itemId).map(Number::longValue).orElse(0L));
+                hotItem.counter.reset((int) ((stock != null ? stock : 0L) - inFlight));
+            } finally {
+                hotItem.resyncing = false;
+            }
+        }
+    }
+
+    public void resyncAfterCommit(Long itemId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    resync(itemId);
+                }
+            });
+        } else {
+            resync(itemId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.inventory.flushInterval:200}")
+    public void flush() {
+        for (Long itemId : hotItems.keySet()) {
+            try {
+                flushPending(itemId);
+            } catch (RuntimeException e) {
+                log.error("Stock flush for item {} failed, will retry", itemId, e);
+            }
+        }
+    }
+
+    // Write-behind: takes the quantity of committed pending orders from items.stock
+    public void flushPending(Long itemId) {
+        Object lock = hotItems.containsKey(itemId) ? hotItems.get(itemId) : this;
+        synchronized (lock) {
+            int flushed;
+            do {
+                Integer count = flushTransaction.execute(status -> {
+                    List<Object[]> rows = orderRepository.lockPendingStock(itemId, FLUSH_BATCH_SIZE);
+                    if (rows.isEmpty()) {
+                        return 0;
+                    }
+                    List<Long> orderIds = new ArrayList<>(rows.size());
+                    int quantity = 0;
+                    for (Object[] row : rows) {
+                        orderIds.add(((Number) row[0]).longValue());
+                        quantity += ((Number) row[1]).intValue();
+                    }
+                    itemRepository.applyReservedStock(itemId, quantity);
+                    orderRepository.markStockApplied(orderIds);
+                    Cache itemCache = cacheManager.getCache(CacheConfig.ITEMS);
+                    if (itemCache != null) {
+                        itemCache.evict(itemId);
+                    }
+                    return rows.size();
+                });
+                flushed = count != null ? count : 0;
+            } while (flushed == FLUSH_BATCH_SIZE);
+        }
+    }
+
+    private static final class HotItem {
+        private final StripedStockCounter counter;
+        // Reserved by transactions that have not completed yet
+        private final LongAdder inFlight = new LongAdder();
+        // Set while resync reloads the counter; reservations wait for it to clear
+        private volatile boolean resyncing;
+
+        private HotItem(int stripes) {
+            this.counter = new StripedStockCounter(stripes);
+        }
+    }
+}
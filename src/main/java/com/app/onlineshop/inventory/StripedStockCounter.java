@@ -0,0 +1,76 @@
+package com.app.onlineshop.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Stock of one item split over several independent counters, so concurrent reservations
+// rarely contend on the same cache line. The total across stripes is the available stock.
+class StripedStockCounter {
+    private final AtomicInteger[] stripes;
+
+    StripedStockCounter(int stripeCount) {
+        stripes = new AtomicInteger[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicInteger();
+        }
+    }
+
+    boolean tryReserve(int quantity) {
+        int home = homeStripe();
+        for (int i = 0; i < stripes.length; i++) {
+            if (tryTake(stripes[(home + i) % stripes.length], quantity)) {
+                return true;
+            }
+        }
+        // No single stripe holds enough; pool all stripes and try once more
+        synchronized (this) {
+            int total = drain();
+            if (total >= quantity) {
+                stripes[home].addAndGet(total - quantity);
+                return true;
+            }
+            stripes[home].addAndGet(total);
+            return false;
+        }
+    }
+
+    void release(int quantity) {
+        stripes[homeStripe()].addAndGet(quantity);
+    }
+
+    synchronized void reset(int stock) {
+        drain();
+        stripes[0].addAndGet(Math.max(stock, 0));
+    }
+
+    int available() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.get();
+        }
+        return total;
+    }
+
+    private boolean tryTake(AtomicInteger stripe, int quantity) {
+        int current;
+        do {
+            current = stripe.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!stripe.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    private int drain() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.getAndSet(0);
+        }
+        return total;
+    }
+
+    private int homeStripe() {
+        return ThreadLocalRandom.current().nextInt(stripes.length);
+    }
+}
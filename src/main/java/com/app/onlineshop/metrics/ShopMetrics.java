@@ -0,0 +1,35 @@
+package com.app.onlineshop.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Business counters. Tags come from small fixed sets (operation, resource type); ids never become tags.
+@Component
+public class ShopMetrics {
+    public static final String STOCK_REJECTIONS = "onlineshop.stock.rejections";
+    public static final String NOT_FOUND = "onlineshop.not.found";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // An order line refused because the item had too little stock; operation is create, batch or update
+    public void stockRejected(String operation) {
+        Counter.builder(STOCK_REJECTIONS)
+                .description("Order lines rejected for lack of stock")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // A lookup of a customer, item or order that does not exist
+    public void notFound(String resource) {
+        Counter.builder(NOT_FOUND)
+                .description("Lookups of entities that do not exist")
+                .tag("resource", resource)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,14 +1,25 @@
 package com.app.onlineshop.model;
 
+import com.app.onlineshop.model.id.TimeOrderedId;
+import com.app.onlineshop.picture.PictureUrlSerializer;
+import com.app.onlineshop.picture.ThumbnailGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.util.Date;
+import java.util.Map;
 
 @Entity
-@Table(name = "customers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "customers", indexes = @Index(name = "idx_customers_pic", columnList = "pic"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +27,7 @@ import java.util.Date;
 
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedId
     private Long customerId;
     @Column(nullable = false)
     private String customerName;
@@ -25,5 +36,22 @@ public class Customer {
     private String customerPhone;
     private boolean isActive;
     private Date lastOrder;
+    // Object key of the picture (older rows hold a full URL); serialized as a presigned URL
+    @JsonSerialize(using = PictureUrlSerializer.class)
     private String pic;
+    // Set once the thumbnails of pic are stored; until then pic itself stands in for them
+    @JsonIgnore
+    private boolean thumbnailsReady;
+    // Bumped on every write; backs the customer ETag
+    @Version
+    private Long version;
+    @UpdateTimestamp
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModified;
+
+    // Keys of the resized copies of pic by size ("64", "256"), serialized as presigned URLs
+    @JsonSerialize(contentUsing = PictureUrlSerializer.class)
+    public Map<String, String> getPicThumbnails() {
+        return ThumbnailGenerator.thumbnailKeys(pic, thumbnailsReady);
+    }
 }
@@ -1,13 +1,19 @@
 package com.app.onlineshop.model;
 
+import com.app.onlineshop.model.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.util.Date;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "items")
 @Data
 @NoArgsConstructor
@@ -16,7 +22,7 @@ import java.util.Date;
 
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedId
     private Long itemId;
     @Column(nullable = false)
     private String itemName;
@@ -26,4 +32,10 @@ public class Item {
     private boolean isAvailable;
     @Temporal(TemporalType.TIMESTAMP)
     private Date lastRestock;
+    // Bumped on every write, including the bulk stock statements; backs the item ETag
+    @Version
+    private Long version;
+    @UpdateTimestamp
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModified;
 }
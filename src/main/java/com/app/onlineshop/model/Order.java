@@ -1,5 +1,7 @@
 package com.app.onlineshop.model;
 
+import com.app.onlineshop.model.id.TimeOrderedId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,7 +10,7 @@ import lombok.NoArgsConstructor;
 import java.util.Date;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_item_stock_pending", columnList = "item_id, stock_pending"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +18,7 @@ import java.util.Date;
 
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedId
     private Long orderId;
 
     @Column(nullable = false)
@@ -35,4 +37,8 @@ public class Order {
     @ManyToOne
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
+
+    // Set while the ordered quantity is reserved in memory but not yet taken from items.stock
+    @JsonIgnore
+    private Boolean stockPending;
 }
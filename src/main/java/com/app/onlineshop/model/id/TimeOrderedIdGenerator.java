@@ -0,0 +1,32 @@
+package com.app.onlineshop.model.id;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+// Hands out TimeOrderedIdSequence values without a database round trip, so inserts can be batched.
+// The node id comes from the Hibernate setting onlineshop.id.node
+// (spring.jpa.properties.onlineshop.id.node) and must differ between running instances.
+public class TimeOrderedIdGenerator implements IdentifierGenerator {
+    public static final String NODE_SETTING = "onlineshop.id.node";
+
+    private final TimeOrderedIdSequence sequence;
+
+    public TimeOrderedIdGenerator(TimeOrderedId config, Member idMember,
+            CustomIdGeneratorCreationContext creationContext) {
+        Map<String, Object> settings = creationContext.getServiceRegistry()
+                .getService(ConfigurationService.class)
+                .getSettings();
+        this.sequence = new TimeOrderedIdSequence(ConfigurationHelper.getInt(NODE_SETTING, settings, 0));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return sequence.next();
+    }
+}
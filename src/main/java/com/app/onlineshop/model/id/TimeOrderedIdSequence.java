@@ -0,0 +1,73 @@
+package com.app.onlineshop.model.id;
+
+import java.util.function.LongSupplier;
+
+// Time-ordered ids that fit in 53 bits, so they stay exact as JSON numbers in the browser:
+//   31 bits seconds since 2024-01-01 (until 2092) | 6 bits node | 16 bits sequence
+// Ids only grow, which keeps InnoDB primary-key inserts appending to the clustered index.
+// A node can issue 65536 ids per second per entity; bursts borrow up to MAX_BORROW_SECONDS ahead
+// and then wait for the clock. A new sequence issues nothing until the clock has passed every
+// second its predecessor may have borrowed, so a restarted node never reuses an id.
+public final class TimeOrderedIdSequence {
+    static final long EPOCH_SECONDS = 1_704_067_200L;
+    static final int NODE_BITS = 6;
+    static final int SEQUENCE_BITS = 16;
+    static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    static final long MAX_BORROW_SECONDS = 2;
+
+    private final long node;
+    private final LongSupplier clockMillis;
+    // Last second a previous run of this node may have issued ids in
+    private final long startupHighWater;
+    private long second = -1;
+    private long sequence;
+
+    public TimeOrderedIdSequence(int node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    TimeOrderedIdSequence(int node, LongSupplier clockMillis) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+        this.clockMillis = clockMillis;
+        this.startupHighWater = currentSecond() + MAX_BORROW_SECONDS;
+    }
+
+    public synchronized long next() {
+        if (second < 0) {
+            // Usually already over by the first insert, since the generator is built at startup
+            while (currentSecond() <= startupHighWater) {
+                waitForClock();
+            }
+        }
+        long now = currentSecond();
+        if (now > second) {
+            second = now;
+            sequence = 0;
+        } else if (++sequence > MAX_SEQUENCE) {
+            // Second exhausted (or clock stepped back): continue in the next logical second
+            second++;
+            sequence = 0;
+            while (second - currentSecond() > MAX_BORROW_SECONDS) {
+                waitForClock();
+            }
+        }
+        return (second << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    private long currentSecond() {
+        return clockMillis.getAsLong() / 1000 - EPOCH_SECONDS;
+    }
+
+    private void waitForClock() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the id clock", e);
+        }
+    }
+}
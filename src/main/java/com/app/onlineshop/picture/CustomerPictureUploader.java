@@ -0,0 +1,188 @@
+package com.app.onlineshop.picture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.app.onlineshop.config.CacheConfig;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.service.MinioService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Sends customer pictures to the object store off the request path.
+//
+// The request copies the multipart body to a staging file, commits the customer row and only
+// then hands the file to a bounded worker pool, so no database connection is held while the
+// object store is slow. When the queue is full the caller uploads itself (still outside any
+// transaction), which slows uploaders down instead of dropping pictures. The worker attaches
+// the stored picture with a single UPDATE once the upload completes.
+@Component
+public class CustomerPictureUploader {
+    private static final Logger log = LoggerFactory.getLogger(CustomerPictureUploader.class);
+
+    @Autowired
+    private MinioService minioService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ThumbnailGenerator thumbnailGenerator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${application.picture.workers:4}")
+    private int workers;
+
+    @Value("${application.picture.queueCapacity:50}")
+    private int queueCapacity;
+
+    @Value("${application.picture.stagingDirectory:${java.io.tmpdir}}")
+    private String stagingDirectory;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "picture-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // Lets queued uploads finish; their staging files would otherwise be orphaned
+    @PreDestroy
+    public void stopWorkers() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Picture uploads still running at shutdown: {}", executor.getActiveCount());
+            executor.shutdownNow();
+        }
+    }
+
+    // Copies the picture off the request, hashing it in the same pass; returns null when there is
+    // nothing to upload. Must be called before the request ends, since the container deletes
+    // multipart files then.
+    public StagedPicture stage(MultipartFile picture) throws IOException {
+        if (picture == null || picture.isEmpty()) {
+            return null;
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Path file = Files.createTempFile(Paths.get(stagingDirectory), "picture-", ".upload");
+        try (InputStream inputStream = new DigestInputStream(picture.getInputStream(), digest)) {
+            Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+        return new StagedPicture(file, picture.getOriginalFilename(), picture.getContentType(), picture.getSize(),
+                HexFormat.of().formatHex(digest.digest()));
+    }
+
+    // Queues the upload; must be called after the customer row is committed and outside any transaction
+    public void submit(Long customerId, StagedPicture picture) {
+        if (picture != null) {
+            executor.execute(() -> upload(customerId, picture));
+        }
+    }
+
+    // Drops a staged picture whose customer write failed
+    public void discard(StagedPicture picture) {
+        if (picture != null) {
+            deleteQuietly(picture.getFile());
+        }
+    }
+
+    private void upload(Long customerId, StagedPicture picture) {
+        try {
+            String pic = minioService.uploadFile(picture);
+            String previousPic = transactionTemplate.execute(status -> {
+                String previous = customerRepository.findPicById(customerId).orElse(null);
+                if (customerRepository.updatePic(customerId, pic) == 0) {
+                    log.warn("Customer {} was deleted before its picture {} was attached", customerId, pic);
+                }
+                Cache cache = cacheManager.getCache(CacheConfig.CUSTOMERS);
+                if (cache != null) {
+                    cache.evict(customerId);
+                }
+                return previous;
+            });
+            thumbnailGenerator.submit(pic);
+            if (previousPic != null && !previousPic.equals(pic)) {
+                deleteIfUnused(previousPic);
+            }
+        } catch (Exception e) {
+            log.error("Picture upload for customer {} failed", customerId, e);
+        } finally {
+            deleteQuietly(picture.getFile());
+        }
+    }
+
+    // Removes a stored picture and its thumbnails once no customer shows it; identical uploads share
+    // one content-addressed key, so a replaced picture may still be in use. A failed delete only
+    // leaves an orphan behind, so it is logged rather than thrown.
+    public void deleteIfUnused(String pic) {
+        Map<String, String> thumbnailKeys = ThumbnailGenerator.thumbnailKeys(pic);
+        if (thumbnailKeys.isEmpty() || customerRepository.existsByPic(pic)) {
+            return;
+        }
+        List<String> objectKeys = new ArrayList<>();
+        objectKeys.add(pic);
+        objectKeys.addAll(thumbnailKeys.values());
+        for (String objectKey : objectKeys) {
+            try {
+                minioService.removeObject(objectKey);
+            } catch (Exception e) {
+                log.warn("Could not delete picture object {}", objectKey, e);
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete staged picture {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.app.onlineshop.picture;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.app.onlineshop.DTO.response.ResourceVersion;
+import com.app.onlineshop.service.MinioService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import jakarta.annotation.PostConstruct;
+
+// Turns a stored picture key into a presigned GET URL when a customer is serialized.
+//
+// Signed URLs are cached per key: an entry is re-signed in the background once half its
+// lifetime has passed and dropped at three quarters, so a URL handed out always has at least a
+// quarter of its lifetime left and listing many customers signs nothing on a warm cache.
+// Values that are already URLs (pictures stored before keys were) pass through unchanged.
+@Component
+public class PictureUrlResolver {
+    private static final Logger log = LoggerFactory.getLogger(PictureUrlResolver.class);
+
+    @Autowired
+    private MinioService minioService;
+
+    @Value("${application.picture.urlExpiry:1h}")
+    private Duration urlExpiry;
+
+    @Value("${application.picture.urlCacheSize:50000}")
+    private long urlCacheSize;
+
+    private LoadingCache<String, String> signedUrls;
+
+    @PostConstruct
+    public void createCache() {
+        signedUrls = Caffeine.newBuilder()
+                .maximumSize(urlCacheSize)
+                .refreshAfterWrite(urlExpiry.dividedBy(2))
+                .expireAfterWrite(urlExpiry.multipliedBy(3).dividedBy(4))
+                .build(objectKey -> minioService.getObjectUrl(objectKey, urlExpiry));
+    }
+
+    // The given version tied to the current signing epoch. A URL is handed out until three quarters
+    // of its lifetime have passed; epochs last the remaining quarter, so a body revalidated within
+    // its epoch never holds an expired URL.
+    public ResourceVersion withSigningEpoch(ResourceVersion version) {
+        long epochMillis = Math.max(1, urlExpiry.dividedBy(4).toMillis());
+        long epoch = System.currentTimeMillis() / epochMillis;
+        return version.withSigningEpoch(epoch, epoch * epochMillis);
+    }
+
+    // Null when the picture cannot be signed right now, so one object store error costs a picture,
+    // not the whole response; the key is signed again on the next read
+    public String resolve(String pic) {
+        if (pic == null || pic.isEmpty() || pic.startsWith("http://") || pic.startsWith("https://")) {
+            return pic;
+        }
+        try {
+            return signedUrls.get(pic);
+        } catch (RuntimeException e) {
+            log.warn("Could not sign picture {}", pic, e);
+            return null;
+        }
+    }
+}
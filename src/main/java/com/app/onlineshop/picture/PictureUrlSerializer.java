@@ -0,0 +1,22 @@
+package com.app.onlineshop.picture;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+// Writes a picture key as a presigned URL. Spring's ObjectMapper creates this through the bean
+// factory, so the resolver is injected; a plain ObjectMapper writes the stored key as is.
+public class PictureUrlSerializer extends JsonSerializer<String> {
+
+    @Autowired(required = false)
+    private PictureUrlResolver pictureUrlResolver;
+
+    @Override
+    public void serialize(String pic, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        generator.writeString(pictureUrlResolver != null ? pictureUrlResolver.resolve(pic) : pic);
+    }
+}
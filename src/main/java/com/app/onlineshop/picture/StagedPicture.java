@@ -0,0 +1,18 @@
+package com.app.onlineshop.picture;
+
+import java.nio.file.Path;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// An uploaded picture copied off the request to local disk, waiting to be sent to the object store
+@Getter
+@AllArgsConstructor
+public class StagedPicture {
+    private final Path file;
+    private final String fileName;
+    private final String contentType;
+    private final long size;
+    // Hex SHA-256 of the content, computed while staging; names the stored object
+    private final String sha256;
+}
@@ -0,0 +1,284 @@
+package com.app.onlineshop.picture;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.onlineshop.config.CacheConfig;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.service.MinioService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Produces small JPEG copies of customer pictures for list views.
+//
+// Thumbnails are stored next to the original under keys derived from its key, so an identical
+// picture (same content-addressed key) is resized only once. Work runs on a small bounded pool;
+// when it is full, or a run fails, the picture is set aside and retried on a schedule rather than
+// slowing down the upload that triggered it. Customers only advertise the thumbnails once a run
+// has stored them all and marked their rows; until then, and for pictures given up on, the
+// original stands in.
+@Component
+public class ThumbnailGenerator {
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailGenerator.class);
+
+    // Longest side in pixels of each derivative
+    public static final List<Integer> SIZES = List.of(64, 256);
+
+    @Autowired
+    private MinioService minioService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${application.picture.thumbnailWorkers:2}")
+    private int workers;
+
+    @Value("${application.picture.thumbnailQueueCapacity:100}")
+    private int queueCapacity;
+
+    @Value("${application.picture.thumbnailQuality:0.8}")
+    private float quality;
+
+    // Largest picture decoded, in pixels; a decoded pixel takes 4 bytes of heap
+    @Value("${application.picture.thumbnailMaxPixels:40000000}")
+    private long maxPixels;
+
+    private ThreadPoolExecutor executor;
+
+    // Failed runs after which a picture is given up on (e.g. its original was deleted)
+    static final int MAX_FAILURES = 5;
+
+    // Pictures whose thumbnails were not queued or not made yet, with their failed runs so far;
+    // drained by retryPending
+    private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "picture-thumbnail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        executor.shutdownNow();
+    }
+
+    // Keys of the derivatives of a stored picture, by size; empty for pictures stored as URLs
+    public static Map<String, String> thumbnailKeys(String pic) {
+        if (pic == null || pic.isEmpty() || pic.startsWith("http://") || pic.startsWith("https://")) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (int size : SIZES) {
+            keys.put(String.valueOf(size), thumbnailKey(pic, size));
+        }
+        return keys;
+    }
+
+    // Thumbnail keys once they are stored, otherwise pic itself for every size, so clients are never
+    // handed a URL to an object that does not exist
+    public static Map<String, String> thumbnailKeys(String pic, boolean ready) {
+        Map<String, String> keys = thumbnailKeys(pic);
+        if (!ready) {
+            keys.replaceAll((size, thumbnailKey) -> pic);
+        }
+        return keys;
+    }
+
+    // Sibling key rather than a sub-path: MinIO cannot hold an object and a "directory" of the same name
+    static String thumbnailKey(String objectKey, int size) {
+        return objectKey + "_" + size + ".jpg";
+    }
+
+    public void submit(String objectKey) {
+        if (!thumbnailKeys(objectKey).isEmpty()) {
+            enqueue(objectKey);
+        }
+    }
+
+    // Requeues set-aside pictures while the pool has room; the rest wait for the next run
+    @Scheduled(fixedDelayString = "${application.picture.thumbnailRetryInterval:30000}")
+    public void retryPending() {
+        for (String objectKey : pending.keySet()) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                return;
+            }
+            Integer failures = pending.remove(objectKey);
+            if (failures != null) {
+                enqueue(objectKey, failures);
+            }
+        }
+    }
+
+    private void enqueue(String objectKey) {
+        enqueue(objectKey, 0);
+    }
+
+    private void enqueue(String objectKey, int failures) {
+        try {
+            executor.execute(() -> generate(objectKey, failures));
+        } catch (RejectedExecutionException e) {
+            if (pending.putIfAbsent(objectKey, failures) == null) {
+                log.warn("Thumbnail queue full, picture {} will be retried", objectKey);
+            }
+        }
+    }
+
+    void generate(String objectKey) {
+        generate(objectKey, 0);
+    }
+
+    private void generate(String objectKey, int failures) {
+        try {
+            BufferedImage original = read(objectKey);
+            if (original == null) {
+                return;
+            }
+            for (int size : SIZES) {
+                String thumbnailKey = thumbnailKey(objectKey, size);
+                if (minioService.objectExists(thumbnailKey)) {
+                    continue;
+                }
+                minioService.putObject(thumbnailKey, encodeJpeg(resize(original, size), quality), "image/jpeg");
+            }
+            markReady(objectKey);
+        } catch (Exception e) {
+            if (failures + 1 < MAX_FAILURES) {
+                log.error("Thumbnails for picture {} failed, will be retried", objectKey, e);
+                pending.put(objectKey, failures + 1);
+            } else {
+                log.error("Thumbnails for picture {} failed {} times, giving up", objectKey, MAX_FAILURES, e);
+            }
+        }
+    }
+
+    // Flags every customer showing this picture, then drops their cached snapshots
+    private void markReady(String objectKey) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> customerIds = customerRepository.findIdsAwaitingThumbnails(objectKey);
+            customerRepository.markThumbnailsReady(objectKey);
+            Cache cache = cacheManager.getCache(CacheConfig.CUSTOMERS);
+            if (cache != null) {
+                customerIds.forEach(cache::evict);
+            }
+        });
+    }
+
+    // Decodes the original, or null when it is not an image or too large to decode. The size comes
+    // from the header, before any pixel is allocated: a small file can declare a huge canvas. Both
+    // cases are permanent, so they are logged and never retried.
+    private BufferedImage read(String objectKey) throws IOException {
+        try (InputStream inputStream = minioService.getObject(objectKey);
+             ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                log.warn("Picture {} is not a readable image, no thumbnails made", objectKey);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Picture {} is {}x{}, over the {} pixel limit, no thumbnails made",
+                            objectKey, width, height, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Fits the image into a size x size box, halving first so large downscales stay smooth.
+    // Never upscales; transparency is flattened onto white since JPEG has no alpha.
+    static BufferedImage resize(BufferedImage source, int size) {
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+}
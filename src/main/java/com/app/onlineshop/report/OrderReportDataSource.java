@@ -0,0 +1,71 @@
+package com.app.onlineshop.report;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+
+import com.app.onlineshop.DTO.response.OrderResponse;
+import com.app.onlineshop.repository.OrderRepository;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+// Feeds the order report from keyset pages of flat rows, so only one chunk is held in memory at a time
+public class OrderReportDataSource implements JRDataSource {
+    private final OrderRepository orderRepository;
+    private final int chunkSize;
+
+    private Iterator<OrderResponse> chunk = Collections.emptyIterator();
+    private OrderResponse current;
+    private long lastOrderId = 0L;
+    private boolean exhausted;
+
+    public OrderReportDataSource(OrderRepository orderRepository, int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean next() {
+        if (!chunk.hasNext()) {
+            if (exhausted) {
+                return false;
+            }
+            List<OrderResponse> rows = orderRepository.findResponsesAfter(lastOrderId, PageRequest.of(0, chunkSize));
+            exhausted = rows.size() < chunkSize;
+            if (rows.isEmpty()) {
+                return false;
+            }
+            chunk = rows.iterator();
+        }
+        current = chunk.next();
+        lastOrderId = current.getOrderId();
+        return true;
+    }
+
+    @Override
+    public Object getFieldValue(JRField field) throws JRException {
+        switch (field.getName()) {
+            case "orderId":
+                return current.getOrderId();
+            case "orderCode":
+                return current.getOrderCode();
+            case "orderDate":
+                return current.getOrderDate() != null ? new Timestamp(current.getOrderDate().getTime()) : null;
+            case "quantity":
+                return current.getQuantity();
+            case "totalPrice":
+                return current.getTotalPrice();
+            case "customer.customerId":
+                return current.getCustomerId();
+            case "item.itemId":
+                return current.getItemId();
+            default:
+                throw new JRException("Unknown order report field: " + field.getName());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.app.onlineshop.report;
+
+import java.util.Optional;
+
+import org.springframework.http.MediaType;
+
+public enum ReportFormat {
+    PDF(MediaType.APPLICATION_PDF, "pdf"),
+    CSV(MediaType.parseMediaType("text/csv"), "csv"),
+    XLSX(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"), "xlsx"),
+    HTML(MediaType.TEXT_HTML, "html");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ReportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static Optional<ReportFormat> fromName(String name) {
+        for (ReportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
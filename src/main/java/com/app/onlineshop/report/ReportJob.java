@@ -0,0 +1,113 @@
+package com.app.onlineshop.report;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// State of one asynchronous report run; written by the worker thread, read by request threads
+public class ReportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String jobId;
+    private final String key;
+    private final ReportFormat format;
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant completedAt;
+    private volatile Instant expiresAt;
+    private volatile Path artifact;
+    private volatile String error;
+    // One reference held by the job until it expires, plus one per open download of the artifact
+    private final AtomicInteger artifactReferences = new AtomicInteger(1);
+
+    public ReportJob(String jobId, String key, ReportFormat format) {
+        this.jobId = jobId;
+        this.key = key;
+        this.format = format;
+    }
+
+    public void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    public void markDone(Path artifact, Instant expiresAt) {
+        this.artifact = artifact;
+        this.completedAt = Instant.now();
+        this.expiresAt = expiresAt;
+        this.status = Status.DONE;
+    }
+
+    public void markFailed(String error, Instant expiresAt) {
+        this.error = error;
+        this.completedAt = Instant.now();
+        this.expiresAt = expiresAt;
+        this.status = Status.FAILED;
+    }
+
+    // A queued, running or still-fresh finished job can answer an identical request
+    public boolean isReusable(Instant now) {
+        return status == Status.QUEUED || status == Status.RUNNING
+                || (status == Status.DONE && now.isBefore(expiresAt));
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    // False once the last reference is gone and the artifact may already be deleted
+    public boolean retainArtifact() {
+        int count;
+        do {
+            count = artifactReferences.get();
+            if (count == 0) {
+                return false;
+            }
+        } while (!artifactReferences.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    // True when this released the last reference, so the artifact can be deleted
+    public boolean releaseArtifact() {
+        return artifactReferences.decrementAndGet() == 0;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public ReportFormat getFormat() {
+        return format;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Path getArtifact() {
+        return artifact;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
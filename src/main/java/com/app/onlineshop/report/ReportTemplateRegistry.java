@@ -0,0 +1,78 @@
+package com.app.onlineshop.report;
+
+import jakarta.annotation.PostConstruct;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Holds compiled Jasper templates so a report request only fills, never compiles.
+// A template is recompiled when its .jrxml source has a newer modification time.
+@Component
+public class ReportTemplateRegistry {
+
+    public static final String ORDER_TEMPLATE = "Order";
+
+    // How often the source timestamp is checked, so hot paths do not stat the file on every call
+    private static final long SOURCE_CHECK_INTERVAL_MS = 5_000;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void compileAtStartup() throws JRException {
+        getTemplate(ORDER_TEMPLATE);
+    }
+
+    public JasperReport getTemplate(String name) throws JRException {
+        CompiledTemplate cached = templates.get(name);
+        long now = System.currentTimeMillis();
+        if (cached != null && now < cached.nextCheck()) {
+            return cached.report();
+        }
+
+        Resource source = resourceLoader.getResource("classpath:" + name + ".jrxml");
+        long lastModified = lastModified(source);
+        if (cached != null && cached.lastModified() == lastModified) {
+            templates.put(name, new CompiledTemplate(cached.report(), lastModified, now + SOURCE_CHECK_INTERVAL_MS));
+            return cached.report();
+        }
+
+        synchronized (this) {
+            CompiledTemplate current = templates.get(name);
+            if (current != null && current != cached && current.lastModified() == lastModified) {
+                return current.report();
+            }
+            try (InputStream inputStream = source.getInputStream()) {
+                JasperReport report = JasperCompileManager.compileReport(inputStream);
+                templates.put(name, new CompiledTemplate(report, lastModified, now + SOURCE_CHECK_INTERVAL_MS));
+                return report;
+            } catch (IOException e) {
+                throw new JRException("Report template " + name + ".jrxml could not be read", e);
+            }
+        }
+    }
+
+    private long lastModified(Resource source) {
+        try {
+            return source.lastModified();
+        } catch (IOException e) {
+            // Sources without a timestamp (e.g. some packaged resources) are treated as unchanged
+            return 0L;
+        }
+    }
+
+    private record CompiledTemplate(JasperReport report, long lastModified, long nextCheck) {
+    }
+}
@@ -1,7 +1,54 @@
 package com.app.onlineshop.repository;
 
+import com.app.onlineshop.DTO.response.ResourceVersion;
 import com.app.onlineshop.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
-}
\ No newline at end of file
+    // Keyset page: customers with an id greater than the cursor, in id order (served from the query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Customer> findByCustomerIdGreaterThanOrderByCustomerIdAsc(Long customerId, Limit limit);
+
+    // Fingerprint of all customers: any insert, update or delete changes at least one of the parts
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.app.onlineshop.DTO.response.ResourceVersion(count(c), coalesce(sum(c.version), 0L), "
+            + "coalesce(max(c.customerId), 0L)) from Customer c")
+    ResourceVersion findCollectionVersion();
+
+    // Version of one customer, read without loading the entity
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.app.onlineshop.DTO.response.ResourceVersion(c.version, c.lastModified) "
+            + "from Customer c where c.customerId = :customerId")
+    Optional<ResourceVersion> findVersionById(@Param("customerId") Long customerId);
+
+    // Attaches an uploaded picture without loading the customer
+    @Modifying
+    @Query("update Customer c set c.pic = :pic, c.thumbnailsReady = false, c.version = c.version + 1, "
+            + "c.lastModified = current_timestamp where c.customerId = :customerId")
+    int updatePic(@Param("customerId") Long customerId, @Param("pic") String pic);
+
+    @Query("select c.pic from Customer c where c.customerId = :customerId")
+    Optional<String> findPicById(@Param("customerId") Long customerId);
+
+    boolean existsByPic(String pic);
+
+    // Customers showing this picture whose thumbnails are not marked as stored yet
+    @Query("select c.customerId from Customer c where c.pic = :pic and c.thumbnailsReady = false")
+    List<Long> findIdsAwaitingThumbnails(@Param("pic") String pic);
+
+    // Starts advertising the thumbnails of a picture once they are stored
+    @Modifying
+    @Query("update Customer c set c.thumbnailsReady = true, c.version = c.version + 1, "
+            + "c.lastModified = current_timestamp where c.pic = :pic and c.thumbnailsReady = false")
+    int markThumbnailsReady(@Param("pic") String pic);
+}
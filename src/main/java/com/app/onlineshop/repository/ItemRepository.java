@@ -1,7 +1,62 @@
 package com.app.onlineshop.repository;
 
+import com.app.onlineshop.DTO.response.ResourceVersion;
 import com.app.onlineshop.model.Item;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-}
\ No newline at end of file
+    // Keyset page: items with an id greater than the cursor, in id order (served from the query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Item> findByItemIdGreaterThanOrderByItemIdAsc(Long itemId, Limit limit);
+
+    // Fingerprint of the whole catalog: any insert, update or delete changes at least one of the parts
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.app.onlineshop.DTO.response.ResourceVersion("
+            + "count(i), coalesce(sum(i.version), 0L), coalesce(max(i.itemId), 0L)) from Item i")
+    ResourceVersion findCatalogVersion();
+
+    // Version of one item, read without loading the entity
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.app.onlineshop.DTO.response.ResourceVersion(i.version, i.lastModified) "
+            + "from Item i where i.itemId = :itemId")
+    Optional<ResourceVersion> findVersionById(@Param("itemId") Long itemId);
+
+    // Takes stock in one conditional statement; returns 0 when the item is unavailable or short of stock.
+    // Availability is assigned first because MySQL evaluates SET clauses left to right.
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.isAvailable = case when i.stock > :quantity then true else false end, "
+            + "i.stock = i.stock - :quantity, i.version = i.version + 1, i.lastModified = current_timestamp "
+            + "where i.itemId = :itemId and i.isAvailable = true and i.stock >= :quantity")
+    int decrementStock(@Param("itemId") Long itemId, @Param("quantity") int quantity);
+
+    // Takes stock that was already reserved elsewhere, without re-checking the amount.
+    // Only clears availability, so an item switched off by hand stays off.
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.isAvailable = case when i.stock > :quantity then i.isAvailable else false end, "
+            + "i.stock = i.stock - :quantity, i.version = i.version + 1, i.lastModified = current_timestamp "
+            + "where i.itemId = :itemId")
+    int applyReservedStock(@Param("itemId") Long itemId, @Param("quantity") int quantity);
+
+    // Stock still free for a hot item: the row's stock less its written-behind (stock_pending) orders,
+    // in one statement so both come from the same snapshot. 0 when the item is unavailable.
+    @Query("select case when i.isAvailable = true then i.stock - coalesce((select sum(o.quantity) from Order o "
+            + "where o.item.itemId = i.itemId and o.stockPending = true), 0) else 0 end "
+            + "from Item i where i.itemId = :itemId")
+    Optional<Number> findStockAfterPending(@Param("itemId") Long itemId);
+
+    // Puts stock back, e.g. when an order quantity is lowered
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.stock = i.stock + :quantity, i.version = i.version + 1, "
+            + "i.lastModified = current_timestamp where i.itemId = :itemId")
+    int incrementStock(@Param("itemId") Long itemId, @Param("quantity") int quantity);
+}
@@ -1,7 +1,72 @@
 package com.app.onlineshop.repository;
 
+import com.app.onlineshop.DTO.response.OrderResponse;
 import com.app.onlineshop.model.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    // Order reads load customer and item in the same statement instead of one query each per order
+    @Override
+    @EntityGraph(attributePaths = { "customer", "item" })
+    List<Order> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = { "customer", "item" })
+    Optional<Order> findById(Long orderId);
+
+    // One order as a flat row; no entities are loaded
+    @Query("select new com.app.onlineshop.DTO.response.OrderResponse("
+            + "o.orderId, o.orderCode, o.orderDate, o.totalPrice, o.quantity, o.customer.customerId, o.item.itemId) "
+            + "from Order o where o.orderId = :orderId")
+    Optional<OrderResponse> findResponseById(@Param("orderId") Long orderId);
+
+    // Keyset page of flat rows straight into OrderResponse, for the order list and reporting;
+    // no entities are loaded
+    @Query("select new com.app.onlineshop.DTO.response.OrderResponse("
+            + "o.orderId, o.orderCode, o.orderDate, o.totalPrice, o.quantity, o.customer.customerId, o.item.itemId) "
+            + "from Order o where o.orderId > :after order by o.orderId")
+    List<OrderResponse> findResponsesAfter(@Param("after") Long after, Pageable pageable);
+
+    // Forward-only cursor over every order as flat rows; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.app.onlineshop.DTO.response.OrderResponse("
+            + "o.orderId, o.orderCode, o.orderDate, o.totalPrice, o.quantity, o.customer.customerId, o.item.itemId) "
+            + "from Order o order by o.orderId")
+    Stream<OrderResponse> streamResponsesForExport();
+
+    // Loads one order with its row locked, so its quantity cannot race a stock flush
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.orderId = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") Long orderId);
+
+    // Locks a batch of orders whose stock is still held in memory; rows are [order_id, quantity]
+    @Query(value = "select order_id, quantity from orders "
+            + "where item_id = :itemId and stock_pending = true "
+            + "order by order_id limit :batchSize for update", nativeQuery = true)
+    List<Object[]> lockPendingStock(@Param("itemId") Long itemId, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("update Order o set o.stockPending = false where o.orderId in :orderIds")
+    int markStockApplied(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("select distinct o.item.itemId from Order o where o.stockPending = true")
+    List<Long> findItemIdsWithPendingStock();
 }
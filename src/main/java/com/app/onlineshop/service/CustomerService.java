@@ -1,63 +1,139 @@
 package com.app.onlineshop.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
+import com.app.onlineshop.config.CacheConfig;
+import com.app.onlineshop.metrics.ShopMetrics;
+import com.app.onlineshop.picture.CustomerPictureUploader;
+import com.app.onlineshop.picture.StagedPicture;
+import com.app.onlineshop.picture.ThumbnailGenerator;
 import com.app.onlineshop.repository.CustomerRepository;
 import com.app.onlineshop.model.Customer;
 import com.app.onlineshop.DTO.request.CustomerRequest;
 import com.app.onlineshop.DTO.response.CustomerResponse;
+import com.app.onlineshop.DTO.response.CustomerSnapshot;
+import com.app.onlineshop.DTO.response.PictureUploadUrlResponse;
+import com.app.onlineshop.DTO.response.ResourceVersion;
+
+import io.micrometer.core.annotation.Timed;
+import io.minio.StatObjectResponse;
 
 @Service
+@Timed(value = "onlineshop.service", histogram = true)
 public class CustomerService {
 
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CustomerPictureUploader customerPictureUploader;
+
     @Autowired
     private MinioService minioService;
 
+    @Autowired
+    private ThumbnailGenerator thumbnailGenerator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShopMetrics shopMetrics;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${application.picture.uploadUrlExpiry:5m}")
+    private Duration uploadUrlExpiry;
+
+    @Value("${application.picture.maxSize:10MB}")
+    private DataSize maxPictureSize;
+
     @Transactional(readOnly = true)
     public List<Customer> getAllCustomers() {
         return customerRepository.findAll();
     }
 
     @Transactional(readOnly = true)
-    public Optional<Customer> getCustomerById(Long customerId) {
-        return customerRepository.findById(customerId);
+    public List<Customer> getCustomersAfter(Long after, int limit) {
+        return customerRepository.findByCustomerIdGreaterThanOrderByCustomerIdAsc(after != null ? after : 0L,
+                Limit.of(limit));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public ResourceVersion getCustomersVersion() {
+        return customerRepository.findCollectionVersion();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ResourceVersion> getCustomerVersion(Long customerId) {
+        return customerRepository.findVersionById(customerId);
+    }
+
+    // The cached snapshot is only served while its version still matches the row's, so a snapshot
+    // re-cached by a reader racing an update, or one of a deleted customer, is never returned
+    @Transactional(readOnly = true)
+    public Optional<CustomerSnapshot> getCustomerById(Long customerId) {
+        Cache cache = cacheManager.getCache(CacheConfig.CUSTOMERS);
+        Optional<ResourceVersion> version = customerRepository.findVersionById(customerId);
+        if (version.isEmpty()) {
+            cache.evict(customerId);
+            shopMetrics.notFound("customer");
+            return Optional.empty();
+        }
+        CustomerSnapshot cached = cache.get(customerId, CustomerSnapshot.class);
+        if (cached != null && cached.resourceVersion().getETag().equals(version.get().getETag())) {
+            return Optional.of(cached);
+        }
+        Optional<CustomerSnapshot> customer = customerRepository.findById(customerId).map(CustomerSnapshot::from);
+        if (customer.isPresent()) {
+            cache.put(customerId, customer.get());
+        } else {
+            shopMetrics.notFound("customer");
+        }
+        return customer;
+    }
+
+    // The picture is staged to disk first and uploaded after the row commits, so a slow object
+    // store never holds a database connection; the response carries the previous picture until then
     public CustomerResponse createCustomer(CustomerRequest requestDTO) {
-        Customer customer = new Customer();
-        customer.setCustomerName(requestDTO.getCustomerName());
-        customer.setCustomerAddress(requestDTO.getCustomerAddress());
-        customer.setCustomerCode(requestDTO.getCustomerCode());
-        customer.setCustomerPhone(requestDTO.getCustomerPhone());
-        customer.setActive(requestDTO.isActive()); // Set active from requestDTO
-        // Upload picture to Minio and set the URL in the customer
+        StagedPicture picture = stagePicture(requestDTO.getPic());
+        Customer savedCustomer;
         try {
-            if (requestDTO.getPic() != null) {
-                String picUrl = minioService.uploadFile(requestDTO.getPic());
-                customer.setPic(picUrl);
-            }
-        } catch (Exception e) {
-            // Handle Minio upload error
-            e.printStackTrace();
-            // You may throw custom exception here if needed
+            savedCustomer = transactionTemplate.execute(status -> {
+                Customer customer = new Customer();
+                customer.setCustomerName(requestDTO.getCustomerName());
+                customer.setCustomerAddress(requestDTO.getCustomerAddress());
+                customer.setCustomerCode(requestDTO.getCustomerCode());
+                customer.setCustomerPhone(requestDTO.getCustomerPhone());
+                customer.setLastOrder(requestDTO.getLastOrder());
+                customer.setActive(requestDTO.isActive()); // Set active from requestDTO
+                return customerRepository.save(customer);
+            });
+        } catch (RuntimeException e) {
+            customerPictureUploader.discard(picture);
+            throw e;
         }
-
-        customer.setLastOrder(requestDTO.getLastOrder());
-        customer.setActive(requestDTO.isActive()); // Set active from requestDTO
-
-        Customer savedCustomer = customerRepository.save(customer);
+        customerPictureUploader.submit(savedCustomer.getCustomerId(), picture);
         return new CustomerResponse(
                 savedCustomer.getCustomerId(),
                 savedCustomer.getCustomerName(),
@@ -66,54 +142,149 @@ public class CustomerService {
                 savedCustomer.getCustomerPhone(),
                 savedCustomer.isActive(),
                 savedCustomer.getLastOrder(),
-                savedCustomer.getPic());
+                savedCustomer.getPic(),
+                savedCustomer.isThumbnailsReady());
     }
 
-    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMERS, key = "#customerId")
     public CustomerResponse updateCustomer(Long customerId, CustomerRequest requestDTO) {
-        Optional<Customer> optionalCustomer = customerRepository.findById(customerId);
-        if (optionalCustomer.isPresent()) {
-            Customer existingCustomer = optionalCustomer.get();
-            existingCustomer.setCustomerName(requestDTO.getCustomerName());
-            existingCustomer.setCustomerAddress(requestDTO.getCustomerAddress());
-            existingCustomer.setCustomerCode(requestDTO.getCustomerCode());
-            existingCustomer.setCustomerPhone(requestDTO.getCustomerPhone());
-            existingCustomer.setActive(requestDTO.isActive()); // Set active from requestDTO
-            existingCustomer.setLastOrder(requestDTO.getLastOrder());
-            try {
-                MultipartFile newPic = requestDTO.getPic();
-                if (newPic != null && !newPic.isEmpty()) {
-                    String picUrl = minioService.uploadFile(newPic);
-                    existingCustomer.setPic(picUrl);
+        StagedPicture picture = stagePicture(requestDTO.getPic());
+        Customer updatedCustomer;
+        try {
+            updatedCustomer = transactionTemplate.execute(status -> {
+                Optional<Customer> optionalCustomer = customerRepository.findById(customerId);
+                if (!optionalCustomer.isPresent()) {
+                    shopMetrics.notFound("customer");
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                            "Customer with ID " + customerId + " not found");
                 }
-            } catch (Exception e) {
-                // Handle Minio upload error
-                e.printStackTrace();
-                // You may throw custom exception here if needed
-            }
+                Customer existingCustomer = optionalCustomer.get();
+                existingCustomer.setCustomerName(requestDTO.getCustomerName());
+                existingCustomer.setCustomerAddress(requestDTO.getCustomerAddress());
+                existingCustomer.setCustomerCode(requestDTO.getCustomerCode());
+                existingCustomer.setCustomerPhone(requestDTO.getCustomerPhone());
+                existingCustomer.setActive(requestDTO.isActive()); // Set active from requestDTO
+                existingCustomer.setLastOrder(requestDTO.getLastOrder());
+                return customerRepository.save(existingCustomer);
+            });
+        } catch (RuntimeException e) {
+            customerPictureUploader.discard(picture);
+            throw e;
+        }
+        customerPictureUploader.submit(customerId, picture);
+        return new CustomerResponse(
+                updatedCustomer.getCustomerId(),
+                updatedCustomer.getCustomerName(),
+                updatedCustomer.getCustomerAddress(),
+                updatedCustomer.getCustomerCode(),
+                updatedCustomer.getCustomerPhone(),
+                updatedCustomer.isActive(),
+                updatedCustomer.getLastOrder(),
+                updatedCustomer.getPic(),
+                updatedCustomer.isThumbnailsReady());
+    }
 
-            Customer updatedCustomer = customerRepository.save(existingCustomer);
-            return new CustomerResponse(
-                    updatedCustomer.getCustomerId(),
-                    updatedCustomer.getCustomerName(),
-                    updatedCustomer.getCustomerAddress(),
-                    updatedCustomer.getCustomerCode(),
-                    updatedCustomer.getCustomerPhone(),
-                    updatedCustomer.isActive(),
-                    updatedCustomer.getLastOrder(),
-                    updatedCustomer.getPic());
-        } else {
+    // Signs a short-lived PUT URL for a server-chosen key, so the picture goes straight to the
+    // object store; the client calls confirmPicture once its upload finished
+    public PictureUploadUrlResponse createPictureUploadUrl(Long customerId) {
+        if (!customerRepository.existsById(customerId)) {
+            shopMetrics.notFound("customer");
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer with ID " + customerId + " not found");
         }
+        String objectKey = pictureKeyPrefix(customerId) + UUID.randomUUID();
+        try {
+            String uploadUrl = minioService.getUploadUrl(objectKey, uploadUrlExpiry);
+            Date expiresAt = new Date(System.currentTimeMillis() + uploadUrlExpiry.toMillis());
+            return new PictureUploadUrlResponse(objectKey, uploadUrl, expiresAt);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Could not sign picture upload", e);
+        }
+    }
+
+    // Attaches a directly uploaded picture after checking it exists in the bucket. The presigned PUT
+    // bounds neither size nor type, so both are checked here and anything else is deleted again.
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMERS, key = "#customerId")
+    public CustomerResponse confirmPicture(Long customerId, String objectKey) {
+        if (!isPictureKeyOf(customerId, objectKey)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Object key " + objectKey + " was not issued for customer " + customerId);
+        }
+        StatObjectResponse uploaded;
+        try {
+            uploaded = minioService.statObject(objectKey);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Could not check picture " + objectKey, e);
+        }
+        if (uploaded == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Picture " + objectKey + " was not uploaded");
+        }
+        String contentType = uploaded.contentType();
+        if (uploaded.size() > maxPictureSize.toBytes() || contentType == null || !contentType.startsWith("image/")) {
+            customerPictureUploader.deleteIfUnused(objectKey);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Picture " + objectKey + " must be an image of at most " + maxPictureSize);
+        }
+        // Read before the update; deleteIfUnused checks again that no customer shows it
+        String previousPic = customerRepository.findPicById(customerId).orElse(null);
+        Customer updatedCustomer = transactionTemplate.execute(status -> {
+            if (customerRepository.updatePic(customerId, objectKey) == 0) {
+                shopMetrics.notFound("customer");
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Customer with ID " + customerId + " not found");
+            }
+            return customerRepository.findById(customerId).get();
+        });
+        thumbnailGenerator.submit(objectKey);
+        if (previousPic != null && !previousPic.equals(objectKey)) {
+            customerPictureUploader.deleteIfUnused(previousPic);
+        }
+        return new CustomerResponse(
+                updatedCustomer.getCustomerId(),
+                updatedCustomer.getCustomerName(),
+                updatedCustomer.getCustomerAddress(),
+                updatedCustomer.getCustomerCode(),
+                updatedCustomer.getCustomerPhone(),
+                updatedCustomer.isActive(),
+                updatedCustomer.getLastOrder(),
+                updatedCustomer.getPic(),
+                updatedCustomer.isThumbnailsReady());
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMERS, key = "#customerId")
     @Transactional
     public void deleteCustomer(Long customerId) {
         Optional<Customer> optionalCustomer = customerRepository.findById(customerId);
         if (optionalCustomer.isPresent()) {
             customerRepository.deleteById(customerId);
         } else {
+            shopMetrics.notFound("customer");
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer with ID " + customerId + " not found");
         }
     }
+
+    private static String pictureKeyPrefix(Long customerId) {
+        return "customers/" + customerId + "/";
+    }
+
+    // Only keys handed out by createPictureUploadUrl: the customer's prefix followed by a UUID
+    private static boolean isPictureKeyOf(Long customerId, String objectKey) {
+        String prefix = pictureKeyPrefix(customerId);
+        if (!objectKey.startsWith(prefix)) {
+            return false;
+        }
+        try {
+            UUID.fromString(objectKey.substring(prefix.length()));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private StagedPicture stagePicture(MultipartFile pic) {
+        try {
+            return customerPictureUploader.stage(pic);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not read customer picture", e);
+        }
+    }
 }
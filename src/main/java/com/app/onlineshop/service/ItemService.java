@@ -1,34 +1,89 @@
 package com.app.onlineshop.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.app.onlineshop.DTO.request.ItemRequest;
 import com.app.onlineshop.DTO.response.ItemResponse;
+import com.app.onlineshop.DTO.response.ItemSnapshot;
+import com.app.onlineshop.DTO.response.ResourceVersion;
+import com.app.onlineshop.config.CacheConfig;
+import com.app.onlineshop.inventory.InventoryReservationEngine;
+import com.app.onlineshop.metrics.ShopMetrics;
 import com.app.onlineshop.model.Item;
 import com.app.onlineshop.repository.ItemRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 import org.springframework.http.HttpStatus;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "onlineshop.service", histogram = true)
 public class ItemService {
 
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private InventoryReservationEngine inventoryReservationEngine;
+
+    @Autowired
+    private ShopMetrics shopMetrics;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Transactional(readOnly = true)
     public List<Item> getAllItems() {
         return itemRepository.findAll();
     }
 
     @Transactional(readOnly = true)
-    public Optional<Item> getItemById(Long itemId) {
-        return itemRepository.findById(itemId);
+    public List<Item> getItemsAfter(Long after, int limit) {
+        return itemRepository.findByItemIdGreaterThanOrderByItemIdAsc(after != null ? after : 0L, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public ResourceVersion getCatalogVersion() {
+        return itemRepository.findCatalogVersion();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ResourceVersion> getItemVersion(Long itemId) {
+        return itemRepository.findVersionById(itemId);
+    }
+
+    // The cached snapshot is only served while its version still matches the row's, so a snapshot
+    // re-cached by a reader racing an update, or one of a deleted item, is never returned
+    @Transactional(readOnly = true)
+    public Optional<ItemSnapshot> getItemById(Long itemId) {
+        Cache cache = cacheManager.getCache(CacheConfig.ITEMS);
+        Optional<ResourceVersion> version = itemRepository.findVersionById(itemId);
+        if (version.isEmpty()) {
+            cache.evict(itemId);
+            shopMetrics.notFound("item");
+            return Optional.empty();
+        }
+        ItemSnapshot cached = cache.get(itemId, ItemSnapshot.class);
+        if (cached != null && cached.resourceVersion().getETag().equals(version.get().getETag())) {
+            return Optional.of(cached);
+        }
+        Optional<ItemSnapshot> item = itemRepository.findById(itemId).map(ItemSnapshot::from);
+        if (item.isPresent()) {
+            cache.put(itemId, item.get());
+        } else {
+            shopMetrics.notFound("item");
+        }
+        return item;
     }
 
     @Transactional
@@ -51,8 +106,14 @@ public class ItemService {
                 savedItem.getLastRestock());
     }
 
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#itemId")
     @Transactional
     public ItemResponse updateItem(Long itemId, ItemRequest requestDTO) {
+        boolean hot = inventoryReservationEngine.isHot(itemId);
+        if (hot) {
+            // Settle written-behind orders first so the new stock value replaces an up-to-date one
+            inventoryReservationEngine.flushPending(itemId);
+        }
         Optional<Item> optionalItem = itemRepository.findById(itemId);
         if (optionalItem.isPresent()) {
             Item existingItem = optionalItem.get();
@@ -63,6 +124,9 @@ public class ItemService {
             existingItem.setAvailable(requestDTO.isAvailable());
             existingItem.setLastRestock(requestDTO.getLastRestock());
             Item updatedItem = itemRepository.save(existingItem);
+            if (hot) {
+                inventoryReservationEngine.resyncAfterCommit(itemId);
+            }
             return new ItemResponse(
                     updatedItem.getItemId(),
                     updatedItem.getItemName(),
@@ -72,16 +136,19 @@ public class ItemService {
                     updatedItem.isAvailable(),
                     updatedItem.getLastRestock());
         } else {
+            shopMetrics.notFound("item");
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Item with ID " + itemId + " not found");
         }
     }
 
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#itemId")
     @Transactional
     public void deleteItem(Long itemId) {
         Optional<Item> optionalItem = itemRepository.findById(itemId);
         if (optionalItem.isPresent()) {
             itemRepository.deleteById(itemId);
         } else {
+            shopMetrics.notFound("item");
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Item with ID " + itemId + " not found");
         }
     }
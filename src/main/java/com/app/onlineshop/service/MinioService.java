@@ -1,50 +1,133 @@
 package com.app.onlineshop.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.minio.GetObjectArgs;
 import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
 import io.minio.errors.MinioException;
 import io.minio.http.Method;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.util.unit.DataSize;
 
+import com.app.onlineshop.picture.StagedPicture;
+
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.Duration;
 
 @Service
+@Timed(value = "onlineshop.service", histogram = true)
 public class MinioService {
     private final MinioClient minioClient;
     private final String bucketName;
+    private final long partSize;
 
     public MinioService(@Value("${application.minio.url}") String url,
             @Value("${application.minio.username}") String accessKey,
             @Value("${application.minio.password}") String secretKey,
-            @Value("${application.minio.bucketName}") String bucketName) {
+            @Value("${application.minio.bucketName}") String bucketName,
+            @Value("${application.minio.partSize:16MB}") DataSize partSize) {
         this.minioClient = MinioClient.builder()
                 .endpoint(url)
                 .credentials(accessKey, secretKey)
                 .build();
         this.bucketName = bucketName;
+        this.partSize = partSize.toBytes();
     }
 
-    public String uploadFile(MultipartFile file) throws Exception {
-        String fileName = file.getOriginalFilename();
-        try (InputStream inputStream = file.getInputStream()) {
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(fileName)
-                            .stream(inputStream, file.getSize(), -1)
-                            .contentType(file.getContentType())
-                            .build());
-            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
-                    .method(Method.GET)
-                    .bucket(bucketName)
-                    .object(fileName)
-                    .build());
+    // Stores the picture under its SHA-256, so identical pictures share one object and a re-upload
+    // costs a single HEAD. Files larger than the part size go up as a multipart upload.
+    // Returns the object key; URLs are signed on demand by PictureUrlResolver.
+    public String uploadFile(StagedPicture file) throws Exception {
+        String objectKey = "pictures/" + file.getSha256();
+        try {
+            if (!objectExists(objectKey)) {
+                try (InputStream inputStream = Files.newInputStream(file.getFile())) {
+                    minioClient.putObject(
+                            PutObjectArgs.builder()
+                                    .bucket(bucketName)
+                                    .object(objectKey)
+                                    .stream(inputStream, file.getSize(), partSize)
+                                    .contentType(file.getContentType())
+                                    .build());
+                }
+            }
+            return objectKey;
         } catch (MinioException e) {
             throw new Exception("Error uploading file to MinIO", e);
         }
     }
+
+    // Streams an object; the caller closes the stream
+    public InputStream getObject(String objectKey) throws Exception {
+        return minioClient.getObject(GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectKey)
+                .build());
+    }
+
+    public void putObject(String objectKey, byte[] content, String contentType) throws Exception {
+        minioClient.putObject(PutObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectKey)
+                .stream(new ByteArrayInputStream(content), content.length, -1)
+                .contentType(contentType)
+                .build());
+    }
+
+    // Presigned GET URL for an object already in the bucket
+    public String getObjectUrl(String objectKey, Duration expiry) throws Exception {
+        return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                .method(Method.GET)
+                .bucket(bucketName)
+                .object(objectKey)
+                .expiry((int) expiry.toSeconds())
+                .build());
+    }
+
+    // Presigned PUT URL that lets a client upload this one object directly to the bucket
+    public String getUploadUrl(String objectKey, Duration expiry) throws Exception {
+        return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                .method(Method.PUT)
+                .bucket(bucketName)
+                .object(objectKey)
+                .expiry((int) expiry.toSeconds())
+                .build());
+    }
+
+    // One HEAD request; false when the object was never uploaded
+    public boolean objectExists(String objectKey) throws Exception {
+        return statObject(objectKey) != null;
+    }
+
+    // One HEAD request: size and content type of an object, or null when it was never uploaded
+    public StatObjectResponse statObject(String objectKey) throws Exception {
+        try {
+            return minioClient.statObject(StatObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectKey)
+                    .build());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    // Deleting a missing object succeeds
+    public void removeObject(String objectKey) throws Exception {
+        minioClient.removeObject(RemoveObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectKey)
+                .build());
+    }
 }
@@ -1,26 +1,53 @@
 package com.app.onlineshop.service;
 
 import com.app.onlineshop.DTO.request.OrderRequest;
+import com.app.onlineshop.DTO.response.ItemSnapshot;
+import com.app.onlineshop.DTO.response.OrderBatchLineResponse;
 import com.app.onlineshop.DTO.response.OrderResponse;
+import com.app.onlineshop.config.CacheConfig;
+import com.app.onlineshop.inventory.InventoryReservationEngine;
+import com.app.onlineshop.metrics.ShopMetrics;
 import com.app.onlineshop.model.Customer;
 import com.app.onlineshop.model.Item;
 import com.app.onlineshop.model.Order;
+import com.app.onlineshop.report.ReportDataVersion;
 import com.app.onlineshop.repository.CustomerRepository;
 import com.app.onlineshop.repository.ItemRepository;
 import com.app.onlineshop.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "onlineshop.service", histogram = true)
 public class OrderService {
 
+    // Rows written between flushes of the export stream
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -30,41 +57,86 @@ public class OrderService {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private InventoryReservationEngine inventoryReservationEngine;
+
+    @Autowired
+    private ReportDataVersion reportDataVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShopMetrics shopMetrics;
+
     @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    // Keyset page of flat rows, so a page never loads the customer and item entities
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersAfter(Long after, int limit) {
+        return orderRepository.findResponsesAfter(after != null ? after : 0L, PageRequest.of(0, limit));
+    }
+
+    // Rows are flat projections, so nothing accumulates in the persistence context however long the export
+    @Transactional(readOnly = true)
+    public long exportOrders(OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (Stream<OrderResponse> rows = orderRepository.streamResponsesForExport()) {
+            Iterator<OrderResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                outputStream.write('\n');
+                if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                    outputStream.flush();
+                }
+            }
+        }
+        outputStream.flush();
+        return count;
+    }
+
     @Transactional(readOnly = true)
-    public Optional<Order> getOrderById(Long orderId) {
-        return orderRepository.findById(orderId);
+    public Optional<OrderResponse> getOrderById(Long orderId) {
+        Optional<OrderResponse> order = orderRepository.findResponseById(orderId);
+        if (order.isEmpty()) {
+            shopMetrics.notFound("order");
+        }
+        return order;
     }
 
     @Transactional
     public OrderResponse createOrder(OrderRequest orderRequest) {
-        // Validate customer
-        Optional<Customer> optionalCustomer = customerRepository.findById(orderRequest.getCustomerId());
-        if (!optionalCustomer.isPresent()) {
+        // Validate customer: only its existence matters, so the query-cached version row is enough
+        // and a deleted customer is a 404
+        if (customerService.getCustomerVersion(orderRequest.getCustomerId()).isEmpty()) {
+            shopMetrics.notFound("customer");
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found");
         }
 
-        // Validate item
-        Optional<Item> optionalItem = itemRepository.findById(orderRequest.getItemId());
+        // Validate item (cached snapshot for price and availability; stock is only checked by the database)
+        Optional<ItemSnapshot> optionalItem = itemService.getItemById(orderRequest.getItemId());
         if (!optionalItem.isPresent()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found");
         }
 
         // Check if item is available
-        Item item = optionalItem.get();
+        ItemSnapshot item = optionalItem.get();
         if (!item.isAvailable()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item is not available");
         }
 
-        // Check if there is enough stock
-        if (item.getStock() < orderRequest.getQuantity()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not enough stock for item");
-        }
-
         // Calculate total price based on item price and quantity
         Double totalPrice = item.getPrice() * orderRequest.getQuantity();
 
@@ -74,19 +146,27 @@ public class OrderService {
         order.setOrderDate(orderRequest.getOrderDate() != null ? orderRequest.getOrderDate() : new Date());
         order.setTotalPrice(totalPrice); // Set total price calculated
         order.setQuantity(orderRequest.getQuantity());
-        order.setCustomer(optionalCustomer.get());
-        order.setItem(item);
-
-        // Update item stock
-        int newStock = item.getStock() - orderRequest.getQuantity();
-        item.setStock(newStock);
+        // Both rows were just seen to exist; associate by reference so no extra select is issued
+        order.setCustomer(customerRepository.getReferenceById(orderRequest.getCustomerId()));
+        order.setItem(itemRepository.getReferenceById(item.getItemId()));
 
-        // Check if item is out of stock
-        if (newStock == 0) {
-            item.setAvailable(false);
+        if (inventoryReservationEngine.isHot(item.getItemId())) {
+            // Hot item: reserve in memory, the stock is written behind
+            if (!inventoryReservationEngine.reserve(item.getItemId(), orderRequest.getQuantity())) {
+                shopMetrics.stockRejected("create");
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not enough stock for item");
+            }
+            order.setStockPending(true);
+        } else if (itemRepository.decrementStock(item.getItemId(), orderRequest.getQuantity()) == 0) {
+            // Take the stock atomically; concurrent orders can never oversell the item
+            shopMetrics.stockRejected("create");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not enough stock for item");
+        } else {
+            evictItem(item.getItemId());
         }
 
         Order savedOrder = orderRepository.save(order);
+        reportDataVersion.markChanged();
 
         return new OrderResponse(
                 savedOrder.getOrderId(),
@@ -98,9 +178,144 @@ public class OrderService {
                 savedOrder.getItem().getItemId());
     }
 
+    // Creates many orders in one transaction: one IN query per referenced table, one stock
+    // statement per item and batched inserts. Lines that cannot be fulfilled are reported, not thrown.
+    @Transactional
+    public List<OrderBatchLineResponse> createOrders(List<OrderRequest> orderRequests) {
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> itemIds = new HashSet<>();
+        for (OrderRequest orderRequest : orderRequests) {
+            customerIds.add(orderRequest.getCustomerId());
+            itemIds.add(orderRequest.getItemId());
+        }
+        Map<Long, Customer> customers = customerRepository.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getCustomerId, Function.identity()));
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getItemId, Function.identity()));
+
+        OrderBatchLineResponse[] results = new OrderBatchLineResponse[orderRequests.size()];
+        // Sorted by item id, so every batch locks its item rows in the same order and two batches
+        // naming the same items in different orders cannot deadlock on each other
+        Map<Long, List<Integer>> linesByItem = new TreeMap<>();
+        for (int i = 0; i < orderRequests.size(); i++) {
+            OrderRequest orderRequest = orderRequests.get(i);
+            Item item = items.get(orderRequest.getItemId());
+            if (!customers.containsKey(orderRequest.getCustomerId())) {
+                shopMetrics.notFound("customer");
+                results[i] = failedLine(i, "Customer with ID " + orderRequest.getCustomerId() + " not found.");
+            } else if (item == null) {
+                shopMetrics.notFound("item");
+                results[i] = failedLine(i, "Item with ID " + orderRequest.getItemId() + " not found.");
+            } else if (!item.isAvailable()) {
+                results[i] = failedLine(i, "Item is not available");
+            } else {
+                linesByItem.computeIfAbsent(item.getItemId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        // Decide which lines get stock, per item
+        List<Integer> acceptedLines = new ArrayList<>();
+        for (Map.Entry<Long, List<Integer>> entry : linesByItem.entrySet()) {
+            Long itemId = entry.getKey();
+            if (inventoryReservationEngine.isHot(itemId)) {
+                for (Integer line : entry.getValue()) {
+                    if (inventoryReservationEngine.reserve(itemId, orderRequests.get(line).getQuantity())) {
+                        acceptedLines.add(line);
+                    } else {
+                        shopMetrics.stockRejected("batch");
+                        results[line] = failedLine(line, "Not enough stock for item");
+                    }
+                }
+            } else {
+                acceptedLines.addAll(takeStock(itemId, items.get(itemId).getStock(), entry.getValue(),
+                        orderRequests, results));
+            }
+        }
+
+        Collections.sort(acceptedLines);
+        List<Order> orders = new ArrayList<>(acceptedLines.size());
+        for (Integer line : acceptedLines) {
+            OrderRequest orderRequest = orderRequests.get(line);
+            Item item = items.get(orderRequest.getItemId());
+            Order order = new Order();
+            order.setOrderCode(orderRequest.getOrderCode());
+            order.setOrderDate(orderRequest.getOrderDate() != null ? orderRequest.getOrderDate() : new Date());
+            order.setTotalPrice(item.getPrice() * orderRequest.getQuantity());
+            order.setQuantity(orderRequest.getQuantity());
+            order.setCustomer(customers.get(orderRequest.getCustomerId()));
+            order.setItem(item);
+            if (inventoryReservationEngine.isHot(item.getItemId())) {
+                order.setStockPending(true);
+            }
+            orders.add(order);
+        }
+
+        // Inserts go out in JDBC batches (hibernate.jdbc.batch_size)
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        for (int i = 0; i < savedOrders.size(); i++) {
+            Order savedOrder = savedOrders.get(i);
+            int line = acceptedLines.get(i);
+            results[line] = new OrderBatchLineResponse(line, true, new OrderResponse(
+                    savedOrder.getOrderId(),
+                    savedOrder.getOrderCode(),
+                    savedOrder.getOrderDate(),
+                    savedOrder.getTotalPrice(),
+                    savedOrder.getQuantity(),
+                    savedOrder.getCustomer().getCustomerId(),
+                    savedOrder.getItem().getItemId()), "Order created successfully.");
+        }
+        if (!savedOrders.isEmpty()) {
+            reportDataVersion.markChanged();
+        }
+        return List.of(results);
+    }
+
+    // Accepts lines in request order while the loaded stock covers them, then takes the total in
+    // one conditional statement. If the stock moved meanwhile, falls back to one statement per line.
+    private List<Integer> takeStock(Long itemId, int loadedStock, List<Integer> lines,
+            List<OrderRequest> orderRequests, OrderBatchLineResponse[] results) {
+        List<Integer> accepted = new ArrayList<>();
+        int remaining = loadedStock;
+        int total = 0;
+        for (Integer line : lines) {
+            int quantity = orderRequests.get(line).getQuantity();
+            if (quantity <= remaining) {
+                accepted.add(line);
+                remaining -= quantity;
+                total += quantity;
+            } else {
+                shopMetrics.stockRejected("batch");
+                results[line] = failedLine(line, "Not enough stock for item");
+            }
+        }
+        if (total == 0) {
+            return accepted;
+        }
+        evictItem(itemId);
+        if (itemRepository.decrementStock(itemId, total) == 1) {
+            return accepted;
+        }
+
+        List<Integer> fallback = new ArrayList<>();
+        for (Integer line : accepted) {
+            if (itemRepository.decrementStock(itemId, orderRequests.get(line).getQuantity()) == 1) {
+                fallback.add(line);
+            } else {
+                shopMetrics.stockRejected("batch");
+                results[line] = failedLine(line, "Not enough stock for item");
+            }
+        }
+        return fallback;
+    }
+
+    private OrderBatchLineResponse failedLine(int line, String message) {
+        return new OrderBatchLineResponse(line, false, null, message);
+    }
+
     @Transactional
     public OrderResponse updateOrder(Long orderId, OrderRequest orderRequest) {
-        Optional<Order> optionalOrder = orderRepository.findById(orderId);
+        // Row lock keeps the quantity and stock_pending consistent with a concurrent stock flush
+        Optional<Order> optionalOrder = orderRepository.findByIdForUpdate(orderId);
         if (optionalOrder.isPresent()) {
             Order existingOrder = optionalOrder.get();
             int previousQuantity = existingOrder.getQuantity();
@@ -111,19 +326,19 @@ public class OrderService {
 
             int quantityDifference = orderRequest.getQuantity() - previousQuantity;
 
-            if (quantityDifference != 0) {
-                int newStock = item.getStock() - quantityDifference;
-                if (newStock < 0) {
+            if (inventoryReservationEngine.isHot(item.getItemId())) {
+                updateHotItemStock(existingOrder, quantityDifference);
+            } else if (quantityDifference > 0) {
+                // Take the extra stock atomically
+                if (itemRepository.decrementStock(item.getItemId(), quantityDifference) == 0) {
+                    shopMetrics.stockRejected("update");
                     throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not enough stock for item");
                 }
-
-                // Update item stock
-                item.setStock(newStock);
-
-                // Check if item is out of stock
-                if (newStock == 0) {
-                    item.setAvailable(false);
-                }
+                evictItem(item.getItemId());
+            } else if (quantityDifference < 0) {
+                // Return the released stock
+                itemRepository.incrementStock(item.getItemId(), -quantityDifference);
+                evictItem(item.getItemId());
             }
 
             // Update the order details
@@ -134,6 +349,7 @@ public class OrderService {
             existingOrder.setQuantity(orderRequest.getQuantity());
 
             Order updatedOrder = orderRepository.save(existingOrder);
+            reportDataVersion.markChanged();
 
             return new OrderResponse(
                     updatedOrder.getOrderId(),
@@ -144,16 +360,55 @@ public class OrderService {
                     updatedOrder.getCustomer().getCustomerId(),
                     updatedOrder.getItem().getItemId());
         } else {
+            shopMetrics.notFound("order");
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order with ID " + orderId + " not found");
         }
     }
 
     @Transactional
     public void deleteOrder(Long orderId) {
-        if (orderRepository.existsById(orderId)) {
-            orderRepository.deleteById(orderId);
+        Optional<Order> optionalOrder = orderRepository.findByIdForUpdate(orderId);
+        if (optionalOrder.isPresent()) {
+            Order order = optionalOrder.get();
+            // Deleting never returns stock; take a still-pending reservation before the order disappears
+            if (Boolean.TRUE.equals(order.getStockPending())) {
+                itemRepository.applyReservedStock(order.getItem().getItemId(), order.getQuantity());
+                evictItem(order.getItem().getItemId());
+            }
+            orderRepository.delete(order);
+            reportDataVersion.markChanged();
         } else {
+            shopMetrics.notFound("order");
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order with ID " + orderId + " not found");
         }
     }
+
+    private void updateHotItemStock(Order order, int quantityDifference) {
+        Long itemId = order.getItem().getItemId();
+        if (quantityDifference > 0
+                && !inventoryReservationEngine.reserve(itemId, quantityDifference)) {
+            shopMetrics.stockRejected("update");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not enough stock for item");
+        }
+        if (quantityDifference < 0) {
+            inventoryReservationEngine.release(itemId, -quantityDifference);
+        }
+        // A pending order is flushed with its new quantity; an already flushed one needs the difference now
+        if (!Boolean.TRUE.equals(order.getStockPending())) {
+            if (quantityDifference > 0) {
+                itemRepository.applyReservedStock(itemId, quantityDifference);
+            } else if (quantityDifference < 0) {
+                itemRepository.incrementStock(itemId, -quantityDifference);
+            }
+            evictItem(itemId);
+        }
+    }
+
+    // Drops the cached item once the transaction commits, so its stock is never shown stale
+    private void evictItem(Long itemId) {
+        Cache cache = cacheManager.getCache(CacheConfig.ITEMS);
+        if (cache != null) {
+            cache.evict(itemId);
+        }
+    }
 }
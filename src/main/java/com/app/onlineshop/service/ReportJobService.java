@@ -0,0 +1,177 @@
+package com.app.onlineshop.service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.app.onlineshop.report.ReportDataVersion;
+import com.app.onlineshop.report.ReportFormat;
+import com.app.onlineshop.report.ReportJob;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class ReportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportDataVersion reportDataVersion;
+
+    @Value("${application.report.workers:2}")
+    private int workers;
+
+    @Value("${application.report.queueCapacity:10}")
+    private int queueCapacity;
+
+    @Value("${application.report.artifactTtl:10m}")
+    private Duration artifactTtl;
+
+    @Value("${application.report.artifactDirectory:${java.io.tmpdir}}")
+    private String artifactDirectory;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ReportJob> jobsByKey = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        executor.shutdownNow();
+    }
+
+    // Returns the job serving this request, reusing an identical queued, running or fresh one
+    // built from the same data version.
+    // Throws java.util.concurrent.RejectedExecutionException when the queue is full.
+    public ReportJob submit(ReportFormat format) {
+        String key = format.name() + ":" + reportDataVersion.current();
+        synchronized (jobsByKey) {
+            ReportJob existing = jobsByKey.get(key);
+            if (existing != null && existing.isReusable(Instant.now())) {
+                return existing;
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), key, format);
+            executor.execute(() -> run(job));
+            jobs.put(job.getJobId(), job);
+            jobsByKey.put(key, job);
+            return job;
+        }
+    }
+
+    public Optional<ReportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    // Opens the artifact of a finished job. It is not deleted while the stream is open, even if the
+    // job expires meanwhile; empty when the job has already been cleaned up.
+    public Optional<InputStream> openArtifact(ReportJob job) throws IOException {
+        if (job.getArtifact() == null || !job.retainArtifact()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new FilterInputStream(Files.newInputStream(job.getArtifact())) {
+                private final AtomicBoolean closed = new AtomicBoolean();
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (closed.compareAndSet(false, true)) {
+                            releaseArtifact(job);
+                        }
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            releaseArtifact(job);
+            throw e;
+        }
+    }
+
+    private void run(ReportJob job) {
+        job.markRunning();
+        Path artifact = null;
+        try {
+            artifact = Files.createTempFile(Paths.get(artifactDirectory),
+                    "report-" + job.getJobId() + "-", "." + job.getFormat().getExtension());
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(artifact))) {
+                reportService.exportReport(job.getFormat(), outputStream);
+            }
+            job.markDone(artifact, Instant.now().plus(artifactTtl));
+        } catch (Exception e) {
+            log.error("Report job {} failed", job.getJobId(), e);
+            deleteQuietly(artifact);
+            job.markFailed(e.getMessage(), Instant.now().plus(artifactTtl));
+        }
+    }
+
+    // Drops expired jobs and their stored artifacts; an artifact still being downloaded is deleted
+    // when its last download closes
+    @Scheduled(fixedDelayString = "${application.report.cleanupInterval:60000}")
+    public void evictExpiredJobs() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> {
+            if (!job.isExpired(now)) {
+                return false;
+            }
+            jobsByKey.remove(job.getKey(), job);
+            releaseArtifact(job);
+            return true;
+        });
+    }
+
+    private void releaseArtifact(ReportJob job) {
+        if (job.releaseArtifact()) {
+            deleteQuietly(job.getArtifact());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete report artifact {}", path, e);
+        }
+    }
+}
@@ -1,46 +1,182 @@
 package com.app.onlineshop.service;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.OutputStream;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.ResourceUtils;
+
+import io.micrometer.core.annotation.Timed;
 
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JasperExportManager;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
-import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+import net.sf.jasperreports.export.SimpleXlsxReportConfiguration;
 
 import com.app.onlineshop.repository.OrderRepository;
-import com.app.onlineshop.model.Order;
+import com.app.onlineshop.report.OrderReportDataSource;
+import com.app.onlineshop.report.ReportDataVersion;
+import com.app.onlineshop.report.ReportFormat;
+import com.app.onlineshop.report.ReportTemplateRegistry;
 
 @Service
+@Timed(value = "onlineshop.service", histogram = true)
 public class ReportService {
     @Autowired
     private OrderRepository orderRepository;
 
-    public ResponseEntity<String> exportReport(String reportFormat) throws FileNotFoundException, JRException {
-        String path = "D:\\Downloads";
-        List<Order> orders = orderRepository.findAll();
+    @Autowired
+    private ReportTemplateRegistry reportTemplateRegistry;
+
+    @Autowired
+    private ReportDataVersion reportDataVersion;
+
+    @Value("${application.report.chunkSize:1000}")
+    private int chunkSize;
+
+    @Value("${application.report.virtualizerMaxPages:50}")
+    private int virtualizerMaxPages;
+
+    @Value("${application.report.swapDirectory:${java.io.tmpdir}}")
+    private String swapDirectory;
 
-        File file = ResourceUtils.getFile("classpath:Order.jrxml");
-        JasperReport jasperReport = JasperCompileManager.compileReport(file.getAbsolutePath());
-        JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(orders);
+    // Latest filled report; shared by every format until the order data changes
+    private final Object fillLock = new Object();
+    private volatile FilledReport cached;
+
+    // Exports the order report in the given format straight to the stream. The report is only
+    // queried and filled when no fill exists for the current data version.
+    public void exportReport(ReportFormat reportFormat, OutputStream outputStream) throws JRException {
+        FilledReport report = acquireReport();
+        try {
+            // The swap-file virtualizer pages the print in and out and is not thread-safe, so
+            // exports of the same filled report take turns; exports of different fills do not wait
+            synchronized (report.exportLock) {
+                export(report.jasperPrint, reportFormat, outputStream);
+            }
+        } finally {
+            report.release();
+        }
+    }
+
+    private FilledReport acquireReport() throws JRException {
+        // Read the version before querying, so rows written during the fill invalidate it
+        long version = reportDataVersion.current();
+        // Already filled for this version: no need to queue behind a fill in progress
+        FilledReport current = cached;
+        if (current != null && current.version == version && current.retain()) {
+            return current;
+        }
+        synchronized (fillLock) {
+            current = cached;
+            if (current != null && current.version == version && current.retain()) {
+                return current;
+            }
+            FilledReport fresh = fill(version);
+            fresh.retain();
+            cached = fresh;
+            if (current != null) {
+                current.release();
+            }
+            return fresh;
+        }
+    }
+
+    private FilledReport fill(long version) throws JRException {
+        JasperReport jasperReport = reportTemplateRegistry.getTemplate(ReportTemplateRegistry.ORDER_TEMPLATE);
+        OrderReportDataSource dataSource = new OrderReportDataSource(orderRepository, chunkSize);
+        JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(
+                virtualizerMaxPages, new JRSwapFile(swapDirectory, 4096, 256), true);
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("createdBy", "Fouz97");
-        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
-        if (reportFormat.equalsIgnoreCase("pdf")) {
-            JasperExportManager.exportReportToPdfFile(jasperPrint, path + "\\Order.pdf");
+        parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        try {
+            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
+            virtualizer.setReadOnly(true);
+            return new FilledReport(version, jasperPrint, virtualizer);
+        } catch (JRException | RuntimeException e) {
+            virtualizer.cleanup();
+            throw e;
+        }
+    }
+
+    private void export(JasperPrint jasperPrint, ReportFormat reportFormat, OutputStream outputStream)
+            throws JRException {
+        switch (reportFormat) {
+            case PDF:
+                JasperExportManager.exportReportToPdfStream(jasperPrint, outputStream);
+                break;
+            case CSV:
+                JRCsvExporter csvExporter = new JRCsvExporter();
+                csvExporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                csvExporter.setExporterOutput(new SimpleWriterExporterOutput(outputStream));
+                csvExporter.exportReport();
+                break;
+            case XLSX:
+                SimpleXlsxReportConfiguration configuration = new SimpleXlsxReportConfiguration();
+                configuration.setOnePagePerSheet(false);
+                configuration.setDetectCellType(true);
+                configuration.setRemoveEmptySpaceBetweenRows(true);
+                JRXlsxExporter xlsxExporter = new JRXlsxExporter();
+                xlsxExporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                xlsxExporter.setExporterOutput(new SimpleOutputStreamExporterOutput(outputStream));
+                xlsxExporter.setConfiguration(configuration);
+                xlsxExporter.exportReport();
+                break;
+            case HTML:
+                HtmlExporter htmlExporter = new HtmlExporter();
+                htmlExporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                htmlExporter.setExporterOutput(new SimpleHtmlExporterOutput(outputStream));
+                htmlExporter.exportReport();
+                break;
+        }
+    }
+
+    // A filled report with its swap file; the swap file is removed once the cache has moved on
+    // and the last in-flight export has released it
+    private static final class FilledReport {
+        private final long version;
+        private final JasperPrint jasperPrint;
+        private final JRSwapFileVirtualizer virtualizer;
+        private final AtomicInteger references = new AtomicInteger(1);
+        private final Object exportLock = new Object();
+
+        private FilledReport(long version, JasperPrint jasperPrint, JRSwapFileVirtualizer virtualizer) {
+            this.version = version;
+            this.jasperPrint = jasperPrint;
+            this.virtualizer = virtualizer;
         }
 
-        return ResponseEntity.ok("report generated in path : " + path);
+        private boolean retain() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                virtualizer.cleanup();
+            }
+        }
     }
-}
\ No newline at end of file
+}
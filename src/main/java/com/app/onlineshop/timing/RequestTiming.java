@@ -0,0 +1,169 @@
+package com.app.onlineshop.timing;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Where the time of one request went, bound to the request thread by ServerTimingFilter.
+// Work done on other threads (picture uploads, report jobs, stock flushes) is not part of it.
+public final class RequestTiming {
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    // Phases that add up over many calls within one request
+    public enum Phase {
+        DB("db"),
+        SQL("sql"),
+        COMMIT("commit"),
+        STORAGE("storage");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private final long start = System.nanoTime();
+    private final String method;
+    private final String path;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final int[] phaseCalls = new int[Phase.values().length];
+    private Map<String, Integer> statementCounts;
+    private long handlerStart;
+    private long statementStart;
+    private long serializationStart;
+    private long end;
+
+    private RequestTiming(String method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+    static RequestTiming begin(String method, String path) {
+        RequestTiming timing = new RequestTiming(method, path);
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    // Null outside a request thread
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    public void add(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+        phaseCalls[phase.ordinal()]++;
+    }
+
+    // The first controller method entered; everything before it is binding and validation
+    void enterHandler() {
+        if (handlerStart == 0) {
+            handlerStart = System.nanoTime();
+        }
+    }
+
+    // JDBC statements run one at a time on the request thread, so one start mark is enough
+    void startStatement() {
+        statementStart = System.nanoTime();
+    }
+
+    void endStatement() {
+        add(Phase.SQL, System.nanoTime() - statementStart);
+    }
+
+    // How many times this SQL text has run in the request so far, including this time
+    int countStatement(String sql) {
+        if (statementCounts == null) {
+            statementCounts = new HashMap<>();
+        }
+        return statementCounts.merge(sql, 1, Integer::sum);
+    }
+
+    String method() {
+        return method;
+    }
+
+    String path() {
+        return path;
+    }
+
+    void startSerialization() {
+        if (serializationStart == 0) {
+            serializationStart = System.nanoTime();
+        }
+    }
+
+    void finish() {
+        end = System.nanoTime();
+    }
+
+    long totalNanos() {
+        return (end != 0 ? end : System.nanoTime()) - start;
+    }
+
+    // Requests rejected before reaching a controller (binding, type mismatch, 404) spent all their
+    // time up to now outside the handler
+    long validationNanos() {
+        return handlerStart != 0 ? handlerStart - start : totalNanos();
+    }
+
+    long serializationNanos() {
+        return serializationStart != 0 && end != 0 ? end - serializationStart : 0;
+    }
+
+    long nanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    int calls(Phase phase) {
+        return phaseCalls[phase.ordinal()];
+    }
+
+    // Server-Timing value for the phases known so far, e.g.
+    // validation;dur=0.4, db;dur=3.2;desc="4 calls", sql;dur=2.5;desc="5 calls", total;dur=6.0
+    String header() {
+        StringBuilder header = new StringBuilder(128);
+        append(header, "validation", validationNanos(), -1);
+        for (Phase phase : Phase.values()) {
+            if (calls(phase) > 0) {
+                append(header, phase.metricName, nanos(phase), calls(phase));
+            }
+        }
+        if (serializationNanos() > 0) {
+            append(header, "serialization", serializationNanos(), -1);
+        }
+        append(header, "total", totalNanos(), -1);
+        return header.toString();
+    }
+
+    // Space-separated key=value pairs for the slow request log
+    String logFields() {
+        StringBuilder fields = new StringBuilder(128);
+        fields.append("totalMs=").append(millis(totalNanos()));
+        fields.append(" validationMs=").append(millis(validationNanos()));
+        for (Phase phase : Phase.values()) {
+            fields.append(' ').append(phase.metricName).append("Ms=").append(millis(nanos(phase)));
+            fields.append(' ').append(phase.metricName).append("Calls=").append(calls(phase));
+        }
+        fields.append(" serializationMs=").append(millis(serializationNanos()));
+        return fields.toString();
+    }
+
+    private static void append(StringBuilder header, String name, long nanos, int calls) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(millis(nanos));
+        if (calls >= 0) {
+            header.append(";desc=\"").append(calls).append(" calls\"");
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
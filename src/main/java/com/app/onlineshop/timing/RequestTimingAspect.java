@@ -0,0 +1,86 @@
+package com.app.onlineshop.timing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Feeds the current RequestTiming: controller entry, repository calls, the commit of the
+// surrounding transaction and object store calls. Does nothing off the request threads.
+@Aspect
+@Component
+public class RequestTimingAspect {
+
+    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object timeHandler(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.enterHandler();
+        }
+        return joinPoint.proceed();
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return joinPoint.proceed();
+        }
+        timeCommit(timing);
+        return timed(joinPoint, timing, RequestTiming.Phase.DB);
+    }
+
+    @Around("execution(public * com.app.onlineshop.service.MinioService.*(..))")
+    public Object timeStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return joinPoint.proceed();
+        }
+        return timed(joinPoint, timing, RequestTiming.Phase.STORAGE);
+    }
+
+    private static Object timed(ProceedingJoinPoint joinPoint, RequestTiming timing, RequestTiming.Phase phase)
+            throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timing.add(phase, System.nanoTime() - start);
+        }
+    }
+
+    // Once per transaction: from beforeCommit to completion covers the flush and the commit itself
+    private static void timeCommit(RequestTiming timing) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(CommitTimer.class)) {
+            return;
+        }
+        CommitTimer commitTimer = new CommitTimer(timing);
+        TransactionSynchronizationManager.bindResource(CommitTimer.class, commitTimer);
+        TransactionSynchronizationManager.registerSynchronization(commitTimer);
+    }
+
+    private static class CommitTimer implements TransactionSynchronization {
+        private final RequestTiming timing;
+        private long start;
+
+        CommitTimer(RequestTiming timing) {
+            this.timing = timing;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CommitTimer.class);
+            if (start != 0) {
+                timing.add(RequestTiming.Phase.COMMIT, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.app.onlineshop.timing;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Times every request and, for a sample of the slow ones, writes one log record with the phases.
+// The Server-Timing header is added just before the body is written (ServerTimingAdvice), just
+// before sendError for error responses, or here for responses without a body; serialization only
+// shows up in the log.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    @Value("${application.timing.slowThreshold:500ms}")
+    private Duration slowThreshold;
+
+    @Value("${application.timing.slowSampleRate:0.1}")
+    private double slowSampleRate;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin(request.getMethod(), request.getRequestURI());
+        try {
+            chain.doFilter(request, new TimedResponse(response, timing));
+        } finally {
+            timing.finish();
+            RequestTiming.clear();
+            if (!response.isCommitted() && !response.containsHeader(SERVER_TIMING)) {
+                response.setHeader(SERVER_TIMING, timing.header());
+            }
+            if (timing.totalNanos() >= slowThreshold.toNanos()
+                    && ThreadLocalRandom.current().nextDouble() < slowSampleRate) {
+                log.warn("slow request method={} route={} path={} status={} {}", timing.method(),
+                        request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                        timing.path(), response.getStatus(), timing.logFields());
+            }
+        }
+    }
+
+    // sendError commits the response before the finally block above runs, and the error body is
+    // written in an error dispatch this filter does not see, so the header has to go on first
+    private static final class TimedResponse extends HttpServletResponseWrapper {
+        private final RequestTiming timing;
+
+        private TimedResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            addServerTiming();
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            addServerTiming();
+            super.sendError(status);
+        }
+
+        private void addServerTiming() {
+            if (!isCommitted() && !containsHeader(SERVER_TIMING)) {
+                setHeader(SERVER_TIMING, timing.header());
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.app.onlineshop.timing;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+// Counts and times every JDBC statement of the current request, and warns once when the same
+// SQL runs repeatedly in one request (usually an N+1 from lazily or eagerly loaded associations)
+public class SqlStatementListener implements QueryExecutionListener {
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementListener.class);
+
+    private final int repeatedStatementThreshold;
+
+    public SqlStatementListener(int repeatedStatementThreshold) {
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.startStatement();
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return;
+        }
+        timing.endStatement();
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (timing.countStatement(queryInfo.getQuery()) == repeatedStatementThreshold) {
+                log.warn("repeated statement count={} method={} path={} sql={}", repeatedStatementThreshold,
+                        timing.method(), timing.path(), queryInfo.getQuery());
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.app.onlineshop.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.repository.CustomerRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CustomerControllerConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Long customerId;
+
+    @BeforeEach
+    void seedCustomers() {
+        customerRepository.save(Customer.builder()
+                .customerName("Staying customer")
+                .customerCode("CUST-STAY")
+                .isActive(true)
+                .build());
+        customerId = customerRepository.save(Customer.builder()
+                .customerName("Polled customer")
+                .customerCode("CUST-ETAG")
+                .isActive(true)
+                .build()).getCustomerId();
+    }
+
+    @Test
+    void deletedCustomerIsNotFoundEvenIfUnmodifiedSince() throws Exception {
+        String lastModified = mockMvc.perform(get("/api/customer/" + customerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        customerRepository.deleteById(customerId);
+
+        mockMvc.perform(get("/api/customer/" + customerId).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteIsSeenByACollectionPollWithIfModifiedSince() throws Exception {
+        mockMvc.perform(get("/api/customer"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+
+        customerRepository.deleteById(customerId);
+
+        mockMvc.perform(get("/api/customer")
+                .header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 01 Jan 2100 00:00:00 GMT"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,178 @@
+package com.app.onlineshop.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.model.Order;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.repository.ItemRepository;
+import com.app.onlineshop.repository.OrderRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Maximum JDBC statements per endpoint. Budgets are for a cold cache, so cache hits only lower
+// the count; raising a budget should come with a reason in the commit.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointQueryBudgetTest {
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private StatementCounter statements;
+    private String run;
+    private List<Customer> customers;
+    private List<Item> items;
+    private Long orderId;
+
+    @BeforeEach
+    void seed() {
+        run = "QB-" + RUN.incrementAndGet() + "-";
+        customers = new ArrayList<>();
+        items = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            customers.add(customerRepository.save(Customer.builder()
+                    .customerName("Budget customer " + i)
+                    .customerCode(run + "CUST-" + i)
+                    .isActive(true)
+                    .build()));
+            items.add(itemRepository.save(Item.builder()
+                    .itemName("Budget item " + i)
+                    .itemCode(run + "ITEM-" + i)
+                    .stock(1_000)
+                    .price(2.0)
+                    .isAvailable(true)
+                    .build()));
+            orders.add(Order.builder()
+                    .orderCode(run + "ORD-" + i)
+                    .orderDate(new Date())
+                    .quantity(1)
+                    .totalPrice(2.0)
+                    .customer(customers.get(i))
+                    .item(items.get(i))
+                    .build());
+        }
+        orderId = orderRepository.saveAll(orders).get(0).getOrderId();
+
+        // Budgets are measured cold: nothing the seeding put in the lookup, entity or query caches
+        for (String cacheName : cacheManager.getCacheNames()) {
+            cacheManager.getCache(cacheName).clear();
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statements = StatementCounter.of(dataSource);
+    }
+
+    @Test
+    void itemEndpoints() throws Exception {
+        // Collection version, then the page
+        statements.assertAtMost(2, "GET /api/item", () ->
+                mockMvc.perform(get("/api/item").param("limit", "50")).andExpect(status().isOk()));
+        // Item version, then the item
+        statements.assertAtMost(2, "GET /api/item/{id}", () ->
+                mockMvc.perform(get("/api/item/" + items.get(0).getItemId())).andExpect(status().isOk()));
+    }
+
+    @Test
+    void customerEndpoints() throws Exception {
+        statements.assertAtMost(2, "GET /api/customer", () ->
+                mockMvc.perform(get("/api/customer").param("limit", "50")).andExpect(status().isOk()));
+        statements.assertAtMost(2, "GET /api/customer/{id}", () ->
+                mockMvc.perform(get("/api/customer/" + customers.get(0).getCustomerId()))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void orderReadEndpoints() throws Exception {
+        // Flat OrderResponse rows; customers and items are never loaded
+        statements.assertAtMost(1, "GET /api/order", () ->
+                mockMvc.perform(get("/api/order").param("limit", "50")).andExpect(status().isOk()));
+        statements.assertAtMost(1, "GET /api/order/{id}", () ->
+                mockMvc.perform(get("/api/order/" + orderId)).andExpect(status().isOk()));
+        statements.assertAtMost(1, "GET /api/order/export.ndjson", () -> {
+            MvcResult result = mockMvc.perform(get("/api/order/export.ndjson")).andReturn();
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        });
+    }
+
+    @Test
+    void orderCreateEndpoint() throws Exception {
+        // Customer version, item version and item, stock update, insert
+        statements.assertAtMost(5, "POST /api/order/create", () ->
+                mockMvc.perform(post("/api/order/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(order(run + "NEW", customers.get(0), items.get(0))))
+                        .andExpect(status().isCreated()));
+    }
+
+    // Customers and items in one query each, one conditional stock update per distinct item (taken
+    // in item id order) and one insert batch, however many lines the batch has
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 5 })
+    void orderBatchEndpoint(int distinctItems) throws Exception {
+        StringBuilder batch = new StringBuilder("{\"orders\":[");
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) {
+                batch.append(',');
+            }
+            batch.append(order(run + "BATCH-" + i, customers.get(i % 5), items.get(i % distinctItems)));
+        }
+        batch.append("]}");
+        statements.assertAtMost(3 + distinctItems, "POST /api/order/batch (" + distinctItems + " items)", () ->
+                mockMvc.perform(post("/api/order/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch.toString()))
+                        .andExpect(status().isOk()));
+    }
+
+    private static String order(String orderCode, Customer customer, Item item) {
+        return "{\"orderCode\":\"" + orderCode + "\",\"orderDate\":" + System.currentTimeMillis()
+                + ",\"quantity\":1,\"customerId\":" + customer.getCustomerId()
+                + ",\"itemId\":" + item.getItemId() + "}";
+    }
+}
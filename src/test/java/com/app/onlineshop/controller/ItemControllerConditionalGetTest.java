@@ -0,0 +1,114 @@
+package com.app.onlineshop.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.onlineshop.DTO.response.ItemSnapshot;
+import com.app.onlineshop.config.CacheConfig;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.repository.ItemRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ItemControllerConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Long itemId;
+
+    @BeforeEach
+    void seedItem() {
+        itemId = itemRepository.save(Item.builder()
+                .itemName("Polled item")
+                .itemCode("ITEM-ETAG")
+                .stock(10)
+                .price(5.0)
+                .isAvailable(true)
+                .build()).getItemId();
+    }
+
+    @Test
+    void unchangedCatalogIsNotModifiedWithoutLoadingItems() throws Exception {
+        String eTag = mockMvc.perform(get("/api/item"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/item").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void stockChangeInvalidatesCatalogAndItemTags() throws Exception {
+        String catalogTag = mockMvc.perform(get("/api/item"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String itemTag = mockMvc.perform(get("/api/item/" + itemId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/item/" + itemId).header(HttpHeaders.IF_NONE_MATCH, itemTag))
+                .andExpect(status().isNotModified());
+
+        // Take stock the way the order path does: conditional UPDATE, then drop the cached item
+        transactionTemplate.executeWithoutResult(status -> itemRepository.decrementStock(itemId, 1));
+        cacheManager.getCache(CacheConfig.ITEMS).evict(itemId);
+
+        String newCatalogTag = mockMvc.perform(get("/api/item").header(HttpHeaders.IF_NONE_MATCH, catalogTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/item/" + itemId).header(HttpHeaders.IF_NONE_MATCH, itemTag))
+                .andExpect(status().isOk());
+        assertNotEquals(catalogTag, newCatalogTag);
+    }
+
+    @Test
+    void snapshotRecachedByARacingReaderIsNotServed() throws Exception {
+        // A reader that loaded the row before an update commits puts the old snapshot after the eviction
+        ItemSnapshot stale = ItemSnapshot.from(itemRepository.findById(itemId).orElseThrow());
+        transactionTemplate.executeWithoutResult(status -> itemRepository.decrementStock(itemId, 1));
+        cacheManager.getCache(CacheConfig.ITEMS).put(itemId, stale);
+
+        mockMvc.perform(get("/api/item/" + itemId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(9));
+    }
+}
@@ -0,0 +1,118 @@
+package com.app.onlineshop.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.model.Order;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.repository.ItemRepository;
+import com.app.onlineshop.repository.OrderRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderControllerQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Statistics statistics;
+    private Long orderId;
+
+    @BeforeEach
+    void seedOrders() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Customer customer = customerRepository.save(Customer.builder()
+                    .customerName("Customer " + i)
+                    .customerCode("CUST-QC-" + i)
+                    .isActive(true)
+                    .build());
+            Item item = itemRepository.save(Item.builder()
+                    .itemName("Item " + i)
+                    .itemCode("ITEM-QC-" + i)
+                    .stock(10)
+                    .price(5.0)
+                    .isAvailable(true)
+                    .build());
+            orders.add(Order.builder()
+                    .orderCode("ORD-QC-" + i)
+                    .orderDate(new Date())
+                    .quantity(1)
+                    .totalPrice(5.0)
+                    .customer(customer)
+                    .item(item)
+                    .build());
+        }
+        orderId = orderRepository.saveAll(orders).get(0).getOrderId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void orderPageIsOneProjectionWithoutEntities() throws Exception {
+        mockMvc.perform(get("/api/order").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].customerId").isNumber())
+                .andExpect(jsonPath("$.orders[0].itemId").isNumber())
+                .andExpect(jsonPath("$.orders[0].customer").doesNotExist());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void orderByIdIsOneProjectionWithoutEntities() throws Exception {
+        mockMvc.perform(get("/api/order/" + orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderId").value(orderId))
+                .andExpect(jsonPath("$.customerId").isNumber())
+                .andExpect(jsonPath("$.item").doesNotExist());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void exportStreamsProjectionsInOneStatement() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/order/export.ndjson")).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,73 @@
+package com.app.onlineshop.controller;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.ChainListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+// Records the SQL run through the application's proxied DataSource on any thread, so statements
+// of async responses (the order export) count too. One counter is shared by all tests of a context.
+final class StatementCounter implements QueryExecutionListener {
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    interface Call {
+        void run() throws Exception;
+    }
+
+    private StatementCounter() {
+    }
+
+    static StatementCounter of(DataSource dataSource) {
+        if (!(dataSource instanceof ProxyDataSource proxyDataSource)) {
+            throw new IllegalStateException("DataSource is not wrapped by DataSourceProxyConfig");
+        }
+        ChainListener chain = proxyDataSource.getProxyConfig().getQueryListener();
+        synchronized (chain) {
+            for (QueryExecutionListener listener : chain.getListeners()) {
+                if (listener instanceof StatementCounter counter) {
+                    return counter;
+                }
+            }
+            StatementCounter counter = new StatementCounter();
+            chain.addListener(counter);
+            return counter;
+        }
+    }
+
+    // Runs the call and fails, listing the statements, when it ran more than maxStatements
+    void assertAtMost(int maxStatements, String endpoint, Call call) throws Exception {
+        List<String> executed = record(call);
+        if (executed.size() > maxStatements) {
+            fail(endpoint + " ran " + executed.size() + " statements, budget is " + maxStatements + ":\n"
+                    + String.join("\n", executed));
+        }
+    }
+
+    List<String> record(Call call) throws Exception {
+        statements.clear();
+        call.run();
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            statements.add(queryInfo.getQuery());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.app.onlineshop.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.app.onlineshop.DTO.request.OrderRequest;
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.model.Order;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.repository.ItemRepository;
+import com.app.onlineshop.repository.OrderRepository;
+import com.app.onlineshop.service.OrderService;
+
+// The scheduled flush is pushed out so each test decides when pending stock is written
+@SpringBootTest(properties = "application.inventory.flushInterval=3600000")
+@ActiveProfiles("test")
+class InventoryReservationEngineTest {
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private InventoryReservationEngine engine;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String run;
+    private Customer customer;
+
+    @BeforeEach
+    void seedCustomer() {
+        run = "INV-" + RUN.incrementAndGet() + "-";
+        customer = customerRepository.save(Customer.builder()
+                .customerName("Inventory customer")
+                .customerCode(run + "CUST")
+                .isActive(true)
+                .build());
+    }
+
+    @Test
+    void reservationIsReturnedWhenTheTransactionRollsBack() {
+        Item item = hotItem(10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(engine.reserve(item.getItemId(), 3));
+            status.setRollbackOnly();
+        });
+        assertEquals(10, engine.available(item.getItemId()));
+
+        transactionTemplate.executeWithoutResult(status -> assertTrue(engine.reserve(item.getItemId(), 3)));
+        assertEquals(7, engine.available(item.getItemId()));
+    }
+
+    @Test
+    void flushTakesPendingOrdersFromStock() {
+        Item item = hotItem(10);
+        order(item, 2);
+        order(item, 3);
+        assertEquals(10, stockOf(item));
+
+        engine.flushPending(item.getItemId());
+
+        assertEquals(5, stockOf(item));
+        assertFalse(hasPendingOrders(item));
+        assertEquals(5, engine.available(item.getItemId()));
+    }
+
+    @Test
+    void startupAppliesOrdersLeftPendingByAPreviousRun() {
+        Item item = itemRepository.save(item(10));
+        orderRepository.save(Order.builder()
+                .orderCode(run + "LEFTOVER")
+                .orderDate(new Date())
+                .quantity(4)
+                .totalPrice(4.0)
+                .customer(customer)
+                .item(item)
+                .stockPending(true)
+                .build());
+
+        makeHot(item);
+
+        assertEquals(6, stockOf(item));
+        assertFalse(hasPendingOrders(item));
+        assertEquals(6, engine.available(item.getItemId()));
+    }
+
+    @Test
+    void resyncDuringConcurrentOrdersNeverOversells() throws Exception {
+        int stock = 300;
+        int threads = 12;
+        int ordersPerThread = 40;
+        Item item = hotItem(stock);
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicBoolean ordering = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerThread; i++) {
+                    try {
+                        orderService.createOrder(request(run + thread + "-" + i, item));
+                        accepted.incrementAndGet();
+                    } catch (ResponseStatusException e) {
+                        // Out of stock
+                    }
+                }
+                return null;
+            }));
+        }
+        // Flush and resync continuously while orders commit
+        Future<?> resyncs = pool.submit(() -> {
+            start.await();
+            while (ordering.get()) {
+                engine.flushPending(item.getItemId());
+                engine.resync(item.getItemId());
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        ordering.set(false);
+        resyncs.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+        engine.flushPending(item.getItemId());
+
+        assertTrue(accepted.get() <= stock, accepted.get() + " orders accepted for " + stock + " in stock");
+        assertEquals(stock - accepted.get(), stockOf(item));
+    }
+
+    private Item hotItem(int stock) {
+        Item item = itemRepository.save(item(stock));
+        makeHot(item);
+        return item;
+    }
+
+    private Item item(int stock) {
+        return Item.builder()
+                .itemName("Inventory item")
+                .itemCode(run + "ITEM-" + stock)
+                .stock(stock)
+                .price(1.0)
+                .isAvailable(true)
+                .build();
+    }
+
+    // Same path as startup with application.inventory.hotItems set to this item
+    private void makeHot(Item item) {
+        ReflectionTestUtils.setField(engine, "hotItemIds", List.of(item.getItemId()));
+        engine.reconcile();
+    }
+
+    private void order(Item item, int quantity) {
+        OrderRequest request = request(run + "ORD-" + quantity, item);
+        request.setQuantity(quantity);
+        orderService.createOrder(request);
+    }
+
+    private OrderRequest request(String orderCode, Item item) {
+        OrderRequest request = new OrderRequest();
+        request.setOrderCode(orderCode);
+        request.setOrderDate(new Date());
+        request.setQuantity(1);
+        request.setCustomerId(customer.getCustomerId());
+        request.setItemId(item.getItemId());
+        return request;
+    }
+
+    private int stockOf(Item item) {
+        return itemRepository.findById(item.getItemId()).orElseThrow().getStock();
+    }
+
+    private boolean hasPendingOrders(Item item) {
+        return orderRepository.findItemIdsWithPendingStock().contains(item.getItemId());
+    }
+}
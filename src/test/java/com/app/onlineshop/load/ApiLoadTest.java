@@ -0,0 +1,394 @@
+package com.app.onlineshop.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.repository.ItemRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+// Drives the running app over HTTP from many virtual users, against the in-memory MySQL-mode
+// database and a stub object store, and fails when an endpoint regresses past the thresholds
+// in load-test.properties. Only runs with: ./mvnw -P load test
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:load-test.properties")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ApiLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(ApiLoadTest.class);
+
+    private static final String ITEM_PAGE = "GET /api/item";
+    private static final String ITEM_BY_ID = "GET /api/item/{id}";
+    private static final String CREATE_ORDER = "POST /api/order/create";
+    private static final String CREATE_CUSTOMER = "POST /api/customer/create";
+    private static final String REPORT_JOB = "POST /store/report/jobs";
+
+    private static final StubObjectStore objectStore = startObjectStore();
+
+    @DynamicPropertySource
+    static void objectStoreProperties(DynamicPropertyRegistry registry) {
+        registry.add("application.minio.url", objectStore::url);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Value("${load.seed}")
+    private long seed;
+
+    @Value("${load.virtualUsers}")
+    private int virtualUsers;
+
+    @Value("${load.warmup}")
+    private Duration warmup;
+
+    @Value("${load.duration}")
+    private Duration duration;
+
+    @Value("${load.catalogItems}")
+    private int catalogItems;
+
+    @Value("${load.mix.catalog}")
+    private int catalogWeight;
+
+    @Value("${load.mix.order}")
+    private int orderWeight;
+
+    @Value("${load.mix.customer}")
+    private int customerWeight;
+
+    @Value("${load.mix.report}")
+    private int reportWeight;
+
+    @Value("${load.objectStoreLatency}")
+    private Duration objectStoreLatency;
+
+    @Value("${load.threshold.errorRate}")
+    private double maxErrorRate;
+
+    @Value("${load.threshold.catalog.p99}")
+    private Duration catalogP99;
+
+    @Value("${load.threshold.order.p99}")
+    private Duration orderP99;
+
+    @Value("${load.threshold.customer.p99}")
+    private Duration customerP99;
+
+    @Value("${load.threshold.report.p99}")
+    private Duration reportP99;
+
+    @Value("${load.picture.virtualUsers}")
+    private int pictureVirtualUsers;
+
+    @Value("${load.picture.duration}")
+    private Duration pictureDuration;
+
+    @Value("${load.picture.maxActiveConnections}")
+    private int maxActiveConnections;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Long> hotItemIds = new ArrayList<>();
+    private final List<Long> customerIds = new ArrayList<>();
+
+    private static StubObjectStore startObjectStore() {
+        try {
+            StubObjectStore store = new StubObjectStore(0);
+            store.start();
+            return store;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start stub object store", e);
+        }
+    }
+
+    @AfterAll
+    static void stopObjectStore() {
+        objectStore.stop();
+    }
+
+    @BeforeAll
+    void seedCatalog() {
+        for (int i = 0; i < catalogItems; i++) {
+            // The first two items take all the order traffic, with enough stock never to run out
+            boolean hot = i < 2;
+            Item item = itemRepository.save(Item.builder()
+                    .itemName("Load item " + i)
+                    .itemCode("LOAD-ITEM-" + i)
+                    .stock(hot ? 100_000_000 : 1_000)
+                    .price(10.0 + i)
+                    .isAvailable(true)
+                    .build());
+            itemIds.add(item.getItemId());
+            if (hot) {
+                hotItemIds.add(item.getItemId());
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            customerIds.add(customerRepository.save(Customer.builder()
+                    .customerName("Load customer " + i)
+                    .customerAddress("Load street " + i)
+                    .customerCode("LOAD-CUST-" + i)
+                    .customerPhone("0800000" + String.format("%03d", i))
+                    .isActive(true)
+                    .build()).getCustomerId());
+        }
+    }
+
+    @Test
+    void mixedTrafficStaysWithinThresholds() throws Exception {
+        objectStore.setLatencyMillis(objectStoreLatency.toMillis());
+
+        LatencyRecorder warmupRecorder = new LatencyRecorder();
+        run(virtualUsers, warmup, warmupRecorder, (random, user) -> mixedRequest(random, user, warmupRecorder));
+        LatencyRecorder recorder = new LatencyRecorder();
+        run(virtualUsers, duration, recorder, (random, user) -> mixedRequest(random, user, recorder));
+
+        Map<String, LatencyRecorder.Summary> summaries = recorder.summarize();
+        print("Mixed traffic, " + virtualUsers + " virtual users, " + duration.toSeconds() + "s", summaries);
+
+        List<String> failures = new ArrayList<>();
+        summaries.forEach((endpoint, summary) -> {
+            if (summary.errorRate() > maxErrorRate) {
+                failures.add(String.format("%s error rate %.2f%% > %.2f%%", endpoint,
+                        summary.errorRate() * 100, maxErrorRate * 100));
+            }
+            Duration p99 = p99Threshold(endpoint);
+            if (summary.p99Millis > p99.toMillis()) {
+                failures.add(String.format("%s p99 %.1fms > %dms", endpoint, summary.p99Millis, p99.toMillis()));
+            }
+        });
+        assertTrue(failures.isEmpty(), "Load thresholds exceeded: " + failures);
+    }
+
+    // A slow object store must not pin database connections: pictures are uploaded outside
+    // the transaction, so pool usage stays low however long each upload takes
+    @Test
+    void slowObjectStoreDoesNotExhaustConnectionPool() throws Exception {
+        objectStore.setLatencyMillis(objectStoreLatency.toMillis() * 4);
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        AtomicInteger peakActive = new AtomicInteger();
+        AtomicInteger peakAwaiting = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+            peakAwaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+        }, 0, 5, TimeUnit.MILLISECONDS);
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        try {
+            run(pictureVirtualUsers, pictureDuration, recorder, (random, user) -> createCustomer(random, recorder));
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        Map<String, LatencyRecorder.Summary> summaries = recorder.summarize();
+        print("Customer pictures, object store +" + objectStoreLatency.toMillis() * 4 + "ms, peak active "
+                + peakActive.get() + ", peak awaiting " + peakAwaiting.get(), summaries);
+
+        assertEquals(0, summaries.get(CREATE_CUSTOMER).errors);
+        assertEquals(0, peakAwaiting.get(), "Requests waited for a database connection");
+        assertTrue(peakActive.get() <= maxActiveConnections,
+                "Peak active connections " + peakActive.get() + " > " + maxActiveConnections);
+    }
+
+    private interface VirtualUser {
+        void request(Random random, int user) throws Exception;
+    }
+
+    private void run(int users, Duration runFor, LatencyRecorder recorder, VirtualUser virtualUser)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + runFor.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        for (int user = 0; user < users; user++) {
+            int userId = user;
+            // Seeded per user so a run replays the same request mix
+            Random random = new Random(seed + user);
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        virtualUser.request(random, userId);
+                    } catch (Exception e) {
+                        recorder.record("unexpected " + e.getClass().getSimpleName(), 0, 0);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(runFor.toMillis() + 60_000, TimeUnit.MILLISECONDS);
+    }
+
+    private void mixedRequest(Random random, int user, LatencyRecorder recorder) throws Exception {
+        int pick = random.nextInt(catalogWeight + orderWeight + customerWeight + reportWeight);
+        if (pick < catalogWeight) {
+            if (random.nextBoolean()) {
+                send(recorder, ITEM_PAGE, get("/api/item?limit=50"));
+            } else {
+                send(recorder, ITEM_BY_ID, get("/api/item/" + itemIds.get(random.nextInt(itemIds.size()))));
+            }
+        } else if (pick < catalogWeight + orderWeight) {
+            String body = "{\"orderCode\":\"LOAD-ORD-" + user + "-" + sequence.incrementAndGet() + "\","
+                    + "\"orderDate\":" + System.currentTimeMillis() + ","
+                    + "\"quantity\":1,"
+                    + "\"customerId\":" + customerIds.get(random.nextInt(customerIds.size())) + ","
+                    + "\"itemId\":" + hotItemIds.get(random.nextInt(hotItemIds.size())) + "}";
+            send(recorder, CREATE_ORDER, HttpRequest.newBuilder(uri("/api/order/create"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+        } else if (pick < catalogWeight + orderWeight + customerWeight) {
+            createCustomer(random, recorder);
+        } else {
+            send(recorder, REPORT_JOB, HttpRequest.newBuilder(uri("/store/report/jobs?format=csv"))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build());
+        }
+    }
+
+    private void createCustomer(Random random, LatencyRecorder recorder) throws Exception {
+        int n = sequence.incrementAndGet();
+        String boundary = "load-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        field(body, boundary, "customerName", "Load customer " + n);
+        field(body, boundary, "customerAddress", "Load street " + n);
+        field(body, boundary, "customerCode", "LOAD-NEW-" + n);
+        field(body, boundary, "customerPhone", "0812" + String.format("%07d", n));
+        field(body, boundary, "isActive", "true");
+        body.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"pic\"; filename=\"pic-" + n + ".jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(picture(random));
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        send(recorder, CREATE_CUSTOMER, HttpRequest.newBuilder(uri("/api/customer/create"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build());
+    }
+
+    private static void field(ByteArrayOutputStream body, String boundary, String name, String value)
+            throws IOException {
+        body.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A small JPEG in a random colour, so each upload is new content rather than a deduplicated hit
+    private static byte[] picture(Random random) throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(random.nextInt(0x1000000)));
+        graphics.fillRect(0, 0, 64, 64);
+        graphics.setColor(new Color(random.nextInt(0x1000000)));
+        graphics.fillOval(random.nextInt(32), random.nextInt(32), 32, 32);
+        graphics.dispose();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", jpeg);
+        return jpeg.toByteArray();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void send(LatencyRecorder recorder, String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        recorder.record(endpoint, System.nanoTime() - start, status);
+    }
+
+    private Duration p99Threshold(String endpoint) {
+        switch (endpoint) {
+            case ITEM_PAGE:
+            case ITEM_BY_ID:
+                return catalogP99;
+            case CREATE_ORDER:
+                return orderP99;
+            case CREATE_CUSTOMER:
+                return customerP99;
+            case REPORT_JOB:
+                return reportP99;
+            default:
+                return Duration.ZERO;
+        }
+    }
+
+    // One log record per table, so the rows stay together among the app's own log lines
+    private static void print(String title, Map<String, LatencyRecorder.Summary> summaries) {
+        StringBuilder table = new StringBuilder(title).append(System.lineSeparator());
+        table.append(String.format("%-28s %8s %7s %9s %9s %9s %9s %9s", "endpoint", "requests", "errors",
+                "throttled", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        summaries.forEach((endpoint, summary) -> table.append(System.lineSeparator()).append(String.format(
+                "%-28s %8d %7d %9d %9.1f %9.1f %9.1f %9.1f", endpoint, summary.requests, summary.errors,
+                summary.throttled, summary.p50Millis, summary.p95Millis, summary.p99Millis, summary.maxMillis)));
+        log.info("{}{}", System.lineSeparator(), table);
+    }
+}
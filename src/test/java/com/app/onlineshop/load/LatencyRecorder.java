@@ -0,0 +1,79 @@
+package com.app.onlineshop.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-endpoint latencies and outcomes collected by the virtual users.
+// A 429 is the app shedding load on purpose, so it is counted as throttled rather than as an error;
+// status 0 stands for a request that never got a response
+class LatencyRecorder {
+    private final Map<String, Samples> samplesByEndpoint = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, int status) {
+        samplesByEndpoint.computeIfAbsent(endpoint, name -> new Samples()).add(nanos, status);
+    }
+
+    Map<String, Summary> summarize() {
+        Map<String, Summary> summaries = new TreeMap<>();
+        samplesByEndpoint.forEach((endpoint, samples) -> summaries.put(endpoint, samples.summarize()));
+        return summaries;
+    }
+
+    static class Summary {
+        final int requests;
+        final int errors;
+        final int throttled;
+        final double p50Millis;
+        final double p95Millis;
+        final double p99Millis;
+        final double maxMillis;
+
+        Summary(int requests, int errors, int throttled, double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+            this.requests = requests;
+            this.errors = errors;
+            this.throttled = throttled;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    private static class Samples {
+        private final List<Long> nanos = new ArrayList<>();
+        private int errors;
+        private int throttled;
+
+        synchronized void add(long latency, int status) {
+            nanos.add(latency);
+            if (status == 429) {
+                throttled++;
+            } else if (status < 200 || status >= 400) {
+                errors++;
+            }
+        }
+
+        synchronized Summary summarize() {
+            List<Long> sorted = new ArrayList<>(nanos);
+            Collections.sort(sorted);
+            return new Summary(sorted.size(), errors, throttled, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), percentile(sorted, 1.0));
+        }
+
+        private static double percentile(List<Long> sorted, double quantile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+            return sorted.get(Math.max(0, index)) / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.app.onlineshop.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Just enough of the S3 API for MinioService (bucket location, HEAD, PUT, GET of whole objects),
+// kept in memory and answering every request after a fixed delay to stand in for a slow store
+class StubObjectStore {
+    private final HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final AtomicInteger puts = new AtomicInteger();
+    private volatile long latencyMillis;
+
+    StubObjectStore(long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    int puts() {
+        return puts.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            sleep();
+            String path = exchange.getRequestURI().getPath();
+            String query = exchange.getRequestURI().getQuery();
+            String method = exchange.getRequestMethod();
+            if (query != null && query.startsWith("location")) {
+                send(exchange, 200, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                        + "<LocationConstraint xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">us-east-1"
+                        + "</LocationConstraint>");
+                return;
+            }
+            byte[] object = objects.get(path);
+            switch (method) {
+                case "HEAD":
+                    if (object == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                    } else {
+                        exchange.getResponseHeaders().add("ETag", "\"" + object.length + "\"");
+                        exchange.getResponseHeaders().add("Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT");
+                        exchange.sendResponseHeaders(200, -1);
+                    }
+                    break;
+                case "PUT":
+                    try (InputStream body = exchange.getRequestBody()) {
+                        objects.put(path, body.readAllBytes());
+                    }
+                    puts.incrementAndGet();
+                    exchange.getResponseHeaders().add("ETag", "\"stub\"");
+                    exchange.sendResponseHeaders(200, -1);
+                    break;
+                case "GET":
+                    if (object == null) {
+                        send(exchange, 404, "<Error><Code>NoSuchKey</Code><Message>Not found</Message></Error>");
+                    } else {
+                        exchange.sendResponseHeaders(200, object.length);
+                        try (OutputStream body = exchange.getResponseBody()) {
+                            body.write(object);
+                        }
+                    }
+                    break;
+                default:
+                    exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String xml) throws IOException {
+        byte[] body = xml.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
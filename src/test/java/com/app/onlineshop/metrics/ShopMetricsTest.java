@@ -0,0 +1,69 @@
+package com.app.onlineshop.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.app.onlineshop.service.ItemService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class ShopMetricsTest {
+    private static final long MISSING_ITEM_ID = 987654321L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void missingItemIsCountedAndTimedWithoutIdTags() throws Exception {
+        double before = notFoundCount("item");
+
+        mockMvc.perform(get("/api/item/" + MISSING_ITEM_ID)).andExpect(status().isNotFound());
+
+        assertEquals(before + 1, notFoundCount("item"));
+        assertNotNull(meterRegistry.find("onlineshop.service")
+                .tag("class", ItemService.class.getName())
+                .tag("method", "getItemById")
+                .timer());
+        assertFalse(meterRegistry.getMeters().stream()
+                .flatMap(meter -> meter.getId().getTags().stream())
+                .anyMatch(tag -> tag.getValue().contains(String.valueOf(MISSING_ITEM_ID))));
+    }
+
+    @Test
+    void prometheusScrapeHasServiceHistogramsAndPoolAndMemoryGauges() throws Exception {
+        mockMvc.perform(get("/api/item/" + MISSING_ITEM_ID));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString("onlineshop_service_seconds_bucket")))
+                .andExpect(content().string(Matchers.containsString("onlineshop_not_found_total")))
+                .andExpect(content().string(Matchers.containsString("hikaricp_connections_active")))
+                .andExpect(content().string(Matchers.containsString("jvm_memory_used_bytes")));
+    }
+
+    private double notFoundCount(String resource) {
+        Counter counter = meterRegistry.find(ShopMetrics.NOT_FOUND).tag("resource", resource).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,121 @@
+package com.app.onlineshop.model.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedIdSequenceTest {
+
+    private static final long START_MILLIS = (TimeOrderedIdSequence.EPOCH_SECONDS + 1_000) * 1000;
+    private static final long IDS_PER_SECOND = TimeOrderedIdSequence.MAX_SEQUENCE + 1;
+
+    private final AtomicLong millis = new AtomicLong(START_MILLIS);
+    // Added to the clock on every read, so waits for the clock finish without real sleeping
+    private final AtomicLong step = new AtomicLong();
+
+    private TimeOrderedIdSequence sequence(int node) {
+        TimeOrderedIdSequence sequence = new TimeOrderedIdSequence(node, () -> millis.getAndAdd(step.get()));
+        // Past the startup high-water mark, so the first id is issued without waiting
+        millis.addAndGet((TimeOrderedIdSequence.MAX_BORROW_SECONDS + 1) * 1000);
+        return sequence;
+    }
+
+    private static long secondOf(long id) {
+        return id >>> (TimeOrderedIdSequence.NODE_BITS + TimeOrderedIdSequence.SEQUENCE_BITS);
+    }
+
+    @Test
+    void idsGrowWithinASecondAndAcrossSeconds() {
+        TimeOrderedIdSequence sequence = sequence(0);
+        long previous = sequence.next();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 100 == 0) {
+                millis.addAndGet(1000);
+            }
+            long id = sequence.next();
+            assertTrue(id > previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void idsKeepGrowingWhenTheClockStepsBack() {
+        TimeOrderedIdSequence sequence = sequence(0);
+        long before = sequence.next();
+        millis.addAndGet(-5_000);
+
+        assertTrue(sequence.next() > before);
+    }
+
+    @Test
+    void nodeAndSequenceHaveTheirOwnBits() {
+        TimeOrderedIdSequence sequence = sequence(TimeOrderedIdSequence.MAX_NODE);
+        long first = sequence.next();
+        long second = sequence.next();
+
+        long expectedSecond = millis.get() / 1000 - TimeOrderedIdSequence.EPOCH_SECONDS;
+        assertEquals(expectedSecond, secondOf(first));
+        assertEquals(TimeOrderedIdSequence.MAX_NODE,
+                (first >>> TimeOrderedIdSequence.SEQUENCE_BITS) & TimeOrderedIdSequence.MAX_NODE);
+        assertEquals(0, first & TimeOrderedIdSequence.MAX_SEQUENCE);
+        assertEquals(1, second & TimeOrderedIdSequence.MAX_SEQUENCE);
+        assertTrue(first < (1L << 53));
+    }
+
+    @Test
+    void rejectsNodeOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdSequence(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimeOrderedIdSequence(TimeOrderedIdSequence.MAX_NODE + 1));
+    }
+
+    @Test
+    void exhaustedSecondBorrowsTheNextOne() {
+        TimeOrderedIdSequence sequence = sequence(0);
+        long first = sequence.next();
+        long last = first;
+        for (long i = 1; i <= IDS_PER_SECOND; i++) {
+            last = sequence.next();
+        }
+
+        assertEquals(secondOf(first) + 1, secondOf(last));
+        assertEquals(0, last & TimeOrderedIdSequence.MAX_SEQUENCE);
+    }
+
+    @Test
+    void borrowingStopsAtTheWindowUntilTheClockCatchesUp() {
+        TimeOrderedIdSequence sequence = sequence(0);
+        long nowSecond = secondOf(sequence.next());
+        for (long i = 1; i < IDS_PER_SECOND * (TimeOrderedIdSequence.MAX_BORROW_SECONDS + 1); i++) {
+            sequence.next();
+        }
+        long clockBefore = millis.get();
+
+        step.set(10);
+        long id = sequence.next();
+
+        assertEquals(nowSecond + TimeOrderedIdSequence.MAX_BORROW_SECONDS + 1, secondOf(id));
+        assertTrue(millis.get() / 1000 - TimeOrderedIdSequence.EPOCH_SECONDS >= nowSecond + 1);
+        assertTrue(millis.get() > clockBefore);
+    }
+
+    @Test
+    void restartedSequenceSkipsEverySecondItsPredecessorCouldHaveBorrowed() {
+        TimeOrderedIdSequence crashed = sequence(0);
+        long lastBeforeCrash = 0;
+        for (long i = 0; i < IDS_PER_SECOND * (TimeOrderedIdSequence.MAX_BORROW_SECONDS + 1); i++) {
+            lastBeforeCrash = crashed.next();
+        }
+
+        // Restart within the same second; the first id waits for the clock to pass the borrowed seconds
+        step.set(10);
+        TimeOrderedIdSequence restarted = new TimeOrderedIdSequence(0, () -> millis.getAndAdd(step.get()));
+        long firstAfterRestart = restarted.next();
+
+        assertTrue(firstAfterRestart > lastBeforeCrash);
+    }
+}
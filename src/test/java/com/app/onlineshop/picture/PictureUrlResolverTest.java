@@ -0,0 +1,85 @@
+package com.app.onlineshop.picture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.app.onlineshop.DTO.response.ResourceVersion;
+import com.app.onlineshop.service.MinioService;
+
+class PictureUrlResolverTest {
+
+    private MinioService minioService;
+    private PictureUrlResolver resolver;
+
+    @BeforeEach
+    void createResolver() throws Exception {
+        minioService = mock(MinioService.class);
+        when(minioService.getObjectUrl(anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> "https://store.example/" + invocation.getArgument(0) + "?signature");
+        resolver = new PictureUrlResolver();
+        ReflectionTestUtils.setField(resolver, "minioService", minioService);
+        ReflectionTestUtils.setField(resolver, "urlExpiry", Duration.ofHours(1));
+        ReflectionTestUtils.setField(resolver, "urlCacheSize", 100L);
+        resolver.createCache();
+    }
+
+    @Test
+    void signsEachKeyOnceForManyReads() throws Exception {
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("https://store.example/pictures/a?signature", resolver.resolve("pictures/a"));
+        }
+
+        verify(minioService, times(1)).getObjectUrl(anyString(), any(Duration.class));
+    }
+
+    @Test
+    void signingFailureIsNullAndRetriedOnTheNextRead() throws Exception {
+        when(minioService.getObjectUrl(eq("pictures/b"), any(Duration.class)))
+                .thenThrow(new IllegalStateException("object store unavailable"))
+                .thenReturn("https://store.example/pictures/b?signature");
+
+        assertNull(resolver.resolve("pictures/b"));
+        assertEquals("https://store.example/pictures/a?signature", resolver.resolve("pictures/a"));
+        assertEquals("https://store.example/pictures/b?signature", resolver.resolve("pictures/b"));
+    }
+
+    @Test
+    void versionMovesToTheNextSigningEpoch() throws Exception {
+        ReflectionTestUtils.setField(resolver, "urlExpiry", Duration.ofMillis(40));
+        ResourceVersion row = new ResourceVersion(3L, new Date(0));
+
+        ResourceVersion before = resolver.withSigningEpoch(row);
+        Thread.sleep(25);
+        ResourceVersion after = resolver.withSigningEpoch(row);
+
+        assertTrue(before.getETag().startsWith("\"3-s"));
+        assertNotEquals(before.getETag(), after.getETag());
+        assertTrue(after.getLastModified() > before.getLastModified());
+    }
+
+    @Test
+    void storedUrlsAndEmptyValuesPassThrough() throws Exception {
+        String legacyUrl = "http://127.0.0.1:9000/rindu/photo.jpg?X-Amz-Signature=abc";
+
+        assertEquals(legacyUrl, resolver.resolve(legacyUrl));
+        assertNull(resolver.resolve(null));
+        verify(minioService, never()).getObjectUrl(anyString(), any(Duration.class));
+    }
+}
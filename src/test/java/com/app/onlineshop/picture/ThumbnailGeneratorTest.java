@@ -0,0 +1,149 @@
+package com.app.onlineshop.picture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CountDownLatch;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.service.MinioService;
+
+class ThumbnailGeneratorTest {
+
+    private MinioService minioService;
+    private CustomerRepository customerRepository;
+    private ThumbnailGenerator generator;
+    private byte[] pngBytes;
+
+    @BeforeEach
+    void createGenerator() throws Exception {
+        BufferedImage picture = new BufferedImage(1200, 600, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(picture, "png", png);
+
+        pngBytes = png.toByteArray();
+
+        minioService = mock(MinioService.class);
+        when(minioService.getObject("pictures/abc")).thenAnswer(invocation -> new ByteArrayInputStream(pngBytes));
+        generator = new ThumbnailGenerator();
+        customerRepository = mock(CustomerRepository.class);
+        ReflectionTestUtils.setField(generator, "minioService", minioService);
+        ReflectionTestUtils.setField(generator, "customerRepository", customerRepository);
+        ReflectionTestUtils.setField(generator, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(generator, "cacheManager", new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(generator, "quality", 0.8f);
+        ReflectionTestUtils.setField(generator, "maxPixels", 40_000_000L);
+        ReflectionTestUtils.setField(generator, "workers", 1);
+        ReflectionTestUtils.setField(generator, "queueCapacity", 1);
+        generator.startWorkers();
+    }
+
+    @AfterEach
+    void stopGenerator() {
+        generator.stopWorkers();
+    }
+
+    @Test
+    void storesEachSizeNextToTheOriginal() throws Exception {
+        generator.generate("pictures/abc");
+
+        for (int size : ThumbnailGenerator.SIZES) {
+            ArgumentCaptor<byte[]> jpeg = ArgumentCaptor.forClass(byte[].class);
+            verify(minioService).putObject(eq("pictures/abc_" + size + ".jpg"), jpeg.capture(), eq("image/jpeg"));
+            BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(jpeg.getValue()));
+            assertEquals(size, thumbnail.getWidth());
+            assertEquals(size / 2, thumbnail.getHeight());
+        }
+        verify(customerRepository).markThumbnailsReady("pictures/abc");
+    }
+
+    @Test
+    void skipsSizesAlreadyStored() throws Exception {
+        when(minioService.objectExists(anyString())).thenReturn(true);
+
+        generator.generate("pictures/abc");
+
+        verify(minioService, never()).putObject(anyString(), any(byte[].class), anyString());
+    }
+
+    @Test
+    void failedRunIsRetried() throws Exception {
+        when(minioService.getObject("pictures/abc"))
+                .thenThrow(new IllegalStateException("object store unavailable"))
+                .thenAnswer(invocation -> new ByteArrayInputStream(pngBytes));
+
+        generator.generate("pictures/abc");
+        verify(minioService, never()).putObject(anyString(), any(byte[].class), anyString());
+        generator.retryPending();
+
+        verify(minioService, timeout(5_000)).putObject(eq("pictures/abc_64.jpg"), any(byte[].class), eq("image/jpeg"));
+    }
+
+    @Test
+    void pictureOverThePixelLimitIsNotDecodedOrRetried() throws Exception {
+        ReflectionTestUtils.setField(generator, "maxPixels", 1200L * 600 - 1);
+
+        generator.generate("pictures/abc");
+        generator.retryPending();
+
+        verify(minioService, after(200).times(1)).getObject("pictures/abc");
+        verify(minioService, never()).putObject(anyString(), any(byte[].class), anyString());
+        verify(customerRepository, never()).markThumbnailsReady(anyString());
+    }
+
+    @Test
+    void pictureDroppedByAFullQueueIsRetried() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(minioService.getObject("pictures/busy")).thenAnswer(invocation -> {
+            release.await();
+            return new ByteArrayInputStream(pngBytes);
+        });
+        when(minioService.getObject("pictures/queued")).thenAnswer(invocation -> new ByteArrayInputStream(pngBytes));
+
+        generator.submit("pictures/busy");
+        verify(minioService, timeout(5_000)).getObject("pictures/busy");
+        generator.submit("pictures/queued");
+        generator.submit("pictures/abc");
+        release.countDown();
+        verify(minioService, timeout(5_000)).getObject("pictures/queued");
+        generator.retryPending();
+
+        verify(minioService, timeout(5_000)).putObject(eq("pictures/abc_64.jpg"), any(byte[].class), eq("image/jpeg"));
+    }
+
+    @Test
+    void picturesStoredAsUrlsHaveNoThumbnails() {
+        assertTrue(ThumbnailGenerator.thumbnailKeys("http://127.0.0.1:9000/rindu/photo.jpg").isEmpty());
+        assertEquals("customers/1/u_64.jpg", ThumbnailGenerator.thumbnailKeys("customers/1/u").get("64"));
+    }
+
+    @Test
+    void originalStandsInUntilThumbnailsAreStored() {
+        assertEquals("customers/1/u", ThumbnailGenerator.thumbnailKeys("customers/1/u", false).get("256"));
+        assertEquals("customers/1/u_256.jpg", ThumbnailGenerator.thumbnailKeys("customers/1/u", true).get("256"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.app.onlineshop.report;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.app.onlineshop.DTO.response.OrderResponse;
+import com.app.onlineshop.repository.OrderRepository;
+
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperExportManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+
+// Chunked paging through the real template; the memory bound itself is ReportServiceBoundedHeapTest
+class OrderReportDataSourceTest {
+
+    private static final int ROWS = 100_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Test
+    void fillsLargeSyntheticDatasetInFixedHeap() throws Exception {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findResponsesAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            List<OrderResponse> rows = new ArrayList<>();
+            for (long id = after + 1; id <= ROWS && rows.size() < pageable.getPageSize(); id++) {
+                rows.add(new OrderResponse(id, "ORD-" + id, new Date(), 10.0 * id, 1, id % 500, id % 50));
+            }
+            return rows;
+        });
+
+        JasperReport jasperReport;
+        try (InputStream template = getClass().getResourceAsStream("/Order.jrxml")) {
+            jasperReport = JasperCompileManager.compileReport(template);
+        }
+        JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(
+                20, new JRSwapFile(System.getProperty("java.io.tmpdir"), 4096, 256), true);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        try {
+            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters,
+                    new OrderReportDataSource(orderRepository, CHUNK_SIZE));
+            virtualizer.setReadOnly(true);
+            JasperExportManager.exportReportToPdfStream(jasperPrint, OutputStream.nullOutputStream());
+
+            assertTrue(jasperPrint.getPages().size() > 1000);
+        } finally {
+            virtualizer.cleanup();
+        }
+
+        // One query per full chunk plus the final empty one
+        verify(orderRepository, times(ROWS / CHUNK_SIZE + 1)).findResponsesAfter(anyLong(), any(Pageable.class));
+    }
+}
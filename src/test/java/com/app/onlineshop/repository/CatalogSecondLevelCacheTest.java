@@ -0,0 +1,98 @@
+package com.app.onlineshop.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogSecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private Statistics statistics;
+    private Long itemId;
+    private Long customerId;
+
+    @BeforeEach
+    void seedCatalog() {
+        itemId = itemRepository.save(Item.builder()
+                .itemName("Cached item")
+                .itemCode("ITEM-L2")
+                .stock(10)
+                .price(5.0)
+                .isAvailable(true)
+                .build()).getItemId();
+        customerId = customerRepository.save(Customer.builder()
+                .customerName("Cached customer")
+                .customerCode("CUST-L2")
+                .isActive(true)
+                .build()).getCustomerId();
+
+        // Start cold so the first read of each test goes to the database
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void repeatedFindByIdIsServedFromCache() {
+        // Each call runs in its own transaction and persistence context
+        itemRepository.findById(itemId);
+        customerRepository.findById(customerId);
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        itemRepository.findById(itemId);
+        customerRepository.findById(customerId);
+
+        assertEquals(2, statementsAfterFirstRead);
+        assertEquals(statementsAfterFirstRead, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 2);
+    }
+
+    @Test
+    void repeatedKeysetPageIsServedFromQueryCache() {
+        itemRepository.findByItemIdGreaterThanOrderByItemIdAsc(0L, Limit.of(50));
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        itemRepository.findByItemIdGreaterThanOrderByItemIdAsc(0L, Limit.of(50));
+
+        assertEquals(1, statementsAfterFirstRead);
+        assertEquals(statementsAfterFirstRead, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void stockUpdateInvalidatesCachedItem() {
+        itemRepository.findById(itemId);
+        transactionTemplate.executeWithoutResult(status -> itemRepository.decrementStock(itemId, 3));
+
+        Item item = itemRepository.findById(itemId).orElseThrow();
+
+        assertEquals(7, item.getStock());
+    }
+}
@@ -0,0 +1,197 @@
+package com.app.onlineshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.app.onlineshop.DTO.request.OrderRequest;
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.repository.ItemRepository;
+import com.app.onlineshop.repository.OrderRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceConcurrencyTest {
+
+    private static final int STOCK = 100;
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 25;
+    private static final int BATCH_ITEMS = 5;
+    private static final int BATCH_ROUNDS = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void concurrentOrdersNeverOversellOneItem() throws Exception {
+        Customer customer = customerRepository.save(Customer.builder()
+                .customerName("Load Tester")
+                .customerCode("CUST-LOAD")
+                .isActive(true)
+                .build());
+        Item item = itemRepository.save(Item.builder()
+                .itemName("Hot Item")
+                .itemCode("ITEM-HOT")
+                .stock(STOCK)
+                .price(10.0)
+                .isAvailable(true)
+                .build());
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    OrderRequest request = new OrderRequest();
+                    request.setOrderCode("ORD-" + thread + "-" + i);
+                    request.setOrderDate(new Date());
+                    request.setQuantity(1);
+                    request.setCustomerId(customer.getCustomerId());
+                    request.setItemId(item.getItemId());
+                    try {
+                        orderService.createOrder(request);
+                        accepted.incrementAndGet();
+                    } catch (ResponseStatusException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        Item after = itemRepository.findById(item.getItemId()).orElseThrow();
+        long ordersForItem = orderRepository.findAll().stream()
+                .filter(order -> order.getItem().getItemId().equals(item.getItemId()))
+                .count();
+
+        assertEquals(STOCK, accepted.get());
+        assertEquals(THREADS * ORDERS_PER_THREAD - STOCK, rejected.get());
+        assertEquals(0, after.getStock());
+        assertFalse(after.isAvailable());
+        assertEquals(STOCK, ordersForItem);
+    }
+
+    @Test
+    void concurrentBatchesOverTheSameItemsInReversedOrderDoNotDeadlock() throws Exception {
+        Customer customer = customerRepository.save(Customer.builder()
+                .customerName("Batch Tester")
+                .customerCode("CUST-BATCH")
+                .isActive(true)
+                .build());
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < BATCH_ITEMS; i++) {
+            itemIds.add(itemRepository.save(Item.builder()
+                    .itemName("Batch Item " + i)
+                    .itemCode("ITEM-BATCH-" + i)
+                    .stock(STOCK)
+                    .price(1.0)
+                    .isAvailable(true)
+                    .build()).getItemId());
+        }
+        List<Long> reversed = new ArrayList<>(itemIds);
+        Collections.reverse(reversed);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<Long> order : List.of(itemIds, reversed)) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int round = 0; round < BATCH_ROUNDS; round++) {
+                    List<OrderRequest> requests = new ArrayList<>();
+                    for (Long itemId : order) {
+                        OrderRequest request = new OrderRequest();
+                        request.setOrderCode("ORD-BATCH-" + round);
+                        request.setQuantity(1);
+                        request.setCustomerId(customer.getCustomerId());
+                        request.setItemId(itemId);
+                        requests.add(request);
+                    }
+                    orderService.createOrders(requests);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        for (Long itemId : itemIds) {
+            assertEquals(STOCK - 2 * BATCH_ROUNDS, itemRepository.findById(itemId).orElseThrow().getStock());
+        }
+    }
+
+    @Test
+    void orderForACachedButDeletedCustomerIsNotFound() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .customerName("Gone Customer")
+                .customerCode("CUST-GONE")
+                .isActive(true)
+                .build());
+        Item item = itemRepository.save(Item.builder()
+                .itemName("Plain Item")
+                .itemCode("ITEM-PLAIN")
+                .stock(5)
+                .price(10.0)
+                .isAvailable(true)
+                .build());
+        assertTrue(customerService.getCustomerById(customer.getCustomerId()).isPresent());
+        // Deleted behind the cache's back, as another node would
+        customerRepository.deleteById(customer.getCustomerId());
+
+        OrderRequest request = new OrderRequest();
+        request.setOrderCode("ORD-GONE");
+        request.setQuantity(1);
+        request.setCustomerId(customer.getCustomerId());
+        request.setItemId(item.getItemId());
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> orderService.createOrder(request));
+
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+}
@@ -0,0 +1,96 @@
+package com.app.onlineshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.app.onlineshop.report.ReportDataVersion;
+import com.app.onlineshop.report.ReportFormat;
+import com.app.onlineshop.report.ReportJob;
+
+class ReportJobServiceTest {
+
+    private static final byte[] CONTENT = "order report".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path artifactDirectory;
+
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void startService() throws Exception {
+        ReportService reportService = mock(ReportService.class);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(CONTENT);
+            return null;
+        }).when(reportService).exportReport(eq(ReportFormat.CSV), any(OutputStream.class));
+
+        reportJobService = new ReportJobService();
+        ReflectionTestUtils.setField(reportJobService, "reportService", reportService);
+        ReflectionTestUtils.setField(reportJobService, "reportDataVersion", new ReportDataVersion());
+        ReflectionTestUtils.setField(reportJobService, "workers", 1);
+        ReflectionTestUtils.setField(reportJobService, "queueCapacity", 1);
+        // Expires as soon as it is done, so every cleanup run evicts it
+        ReflectionTestUtils.setField(reportJobService, "artifactTtl", Duration.ZERO);
+        ReflectionTestUtils.setField(reportJobService, "artifactDirectory", artifactDirectory.toString());
+        reportJobService.startWorkers();
+    }
+
+    @AfterEach
+    void stopService() {
+        reportJobService.stopWorkers();
+    }
+
+    @Test
+    void cleanupKeepsAnArtifactUntilItsDownloadCloses() throws Exception {
+        ReportJob job = finishedJob();
+        Path artifact = job.getArtifact();
+
+        try (InputStream download = reportJobService.openArtifact(job).orElseThrow()) {
+            reportJobService.evictExpiredJobs();
+
+            assertTrue(Files.exists(artifact));
+            assertArrayEquals(CONTENT, download.readAllBytes());
+        }
+
+        assertFalse(Files.exists(artifact));
+        assertTrue(reportJobService.openArtifact(job).isEmpty());
+    }
+
+    @Test
+    void cleanupDeletesAnArtifactNobodyIsDownloading() throws Exception {
+        ReportJob job = finishedJob();
+
+        reportJobService.evictExpiredJobs();
+
+        assertFalse(Files.exists(job.getArtifact()));
+        assertTrue(reportJobService.getJob(job.getJobId()).isEmpty());
+    }
+
+    private ReportJob finishedJob() throws InterruptedException {
+        ReportJob job = reportJobService.submit(ReportFormat.CSV);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (job.getStatus() != ReportJob.Status.DONE && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.getStatus() == ReportJob.Status.DONE, "job " + job.getStatus());
+        return job;
+    }
+}
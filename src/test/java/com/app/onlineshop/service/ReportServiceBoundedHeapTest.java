@@ -0,0 +1,83 @@
+package com.app.onlineshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.app.onlineshop.DTO.response.OrderResponse;
+import com.app.onlineshop.report.ReportDataVersion;
+import com.app.onlineshop.report.ReportFormat;
+import com.app.onlineshop.report.ReportTemplateRegistry;
+import com.app.onlineshop.repository.OrderRepository;
+
+// Runs in its own surefire execution (bounded-heap) with a heap smaller than the exported dataset
+@Tag("bounded-heap")
+class ReportServiceBoundedHeapTest {
+
+    private static final int ROWS = 400_000;
+    // An OrderResponse with its boxed fields, code string and date takes well over 200 bytes
+    private static final long MIN_ROW_BYTES = 200;
+
+    @Test
+    void exportsMoreOrdersThanFitInTheHeap() throws Exception {
+        assumeTrue(Runtime.getRuntime().maxMemory() < ROWS * MIN_ROW_BYTES,
+                "needs a heap smaller than the dataset, run via the bounded-heap surefire execution");
+
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findResponsesAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            List<OrderResponse> rows = new ArrayList<>();
+            for (long id = after + 1; id <= ROWS && rows.size() < pageable.getPageSize(); id++) {
+                rows.add(new OrderResponse(id, "ORD-" + id, new Date(), 10.0 * id, 1, id % 500, id % 50));
+            }
+            return rows;
+        });
+        ReportTemplateRegistry reportTemplateRegistry = new ReportTemplateRegistry();
+        ReflectionTestUtils.setField(reportTemplateRegistry, "resourceLoader", new DefaultResourceLoader());
+        ReportService reportService = new ReportService();
+        ReflectionTestUtils.setField(reportService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(reportService, "reportTemplateRegistry", reportTemplateRegistry);
+        ReflectionTestUtils.setField(reportService, "reportDataVersion", new ReportDataVersion());
+        ReflectionTestUtils.setField(reportService, "chunkSize", 1_000);
+        ReflectionTestUtils.setField(reportService, "virtualizerMaxPages", 20);
+        ReflectionTestUtils.setField(reportService, "swapDirectory", System.getProperty("java.io.tmpdir"));
+
+        LineCounter output = new LineCounter();
+        reportService.exportReport(ReportFormat.CSV, output);
+
+        assertTrue(output.lines >= ROWS, "exported " + output.lines + " lines");
+    }
+
+    private static final class LineCounter extends OutputStream {
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.app.onlineshop.timing;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.app.onlineshop.model.Customer;
+import com.app.onlineshop.model.Item;
+import com.app.onlineshop.repository.CustomerRepository;
+import com.app.onlineshop.repository.ItemRepository;
+
+// Every request counts as slow and is sampled, so the log record can be checked
+@SpringBootTest(properties = {
+        "application.timing.slowThreshold=0ms",
+        "application.timing.slowSampleRate=1.0" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class ServerTimingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void itemLookupReportsDatabaseTime() throws Exception {
+        Item item = itemRepository.save(Item.builder()
+                .itemName("Timed item")
+                .itemCode("ITEM-ST-1")
+                .stock(5)
+                .price(3.0)
+                .isAvailable(true)
+                .build());
+
+        mockMvc.perform(get("/api/item/" + item.getItemId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", containsString("validation;dur=")))
+                .andExpect(header().string("Server-Timing", containsString("db;dur=")))
+                .andExpect(header().string("Server-Timing", containsString("total;dur=")));
+    }
+
+    @Test
+    void errorResponseFromSendErrorStillCarriesTheHeader() throws Exception {
+        // The id cannot be bound, so the request never reaches the controller and ends in sendError(400)
+        mockMvc.perform(get("/api/item/not-a-number"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string("Server-Timing", containsString("validation;dur=")))
+                .andExpect(header().string("Server-Timing", containsString("total;dur=")));
+    }
+
+    @Test
+    void requestThatNeverReachedAHandlerCountsAsValidation() throws Exception {
+        RequestTiming timing = RequestTiming.begin("GET", "/api/item/not-a-number");
+        try {
+            Thread.sleep(5);
+            timing.finish();
+        } finally {
+            RequestTiming.clear();
+        }
+
+        assertTrue(timing.validationNanos() >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(timing.totalNanos(), timing.validationNanos());
+    }
+
+    @Test
+    void orderCreationReportsCommitAndLogsPhases(CapturedOutput output) throws Exception {
+        Customer customer = customerRepository.save(Customer.builder()
+                .customerName("Timed customer")
+                .customerCode("CUST-ST-1")
+                .isActive(true)
+                .build());
+        Item item = itemRepository.save(Item.builder()
+                .itemName("Timed order item")
+                .itemCode("ITEM-ST-2")
+                .stock(5)
+                .price(3.0)
+                .isAvailable(true)
+                .build());
+        String order = "{\"orderCode\":\"ORD-ST-1\",\"orderDate\":" + System.currentTimeMillis() + ",\"quantity\":1,"
+                + "\"customerId\":" + customer.getCustomerId() + ",\"itemId\":" + item.getItemId() + "}";
+
+        mockMvc.perform(post("/api/order/create").contentType(MediaType.APPLICATION_JSON).content(order))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Server-Timing", containsString("commit;dur=")));
+
+        assertTrue(output.getOut().contains("slow request method=POST route=/api/order/create"));
+        assertTrue(output.getOut().contains("serializationMs="));
+    }
+}